@@ -0,0 +1,153 @@
+package com.karthik.springboot.controller;
+
+import com.karthik.springboot.dto.EmployeePage;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+// same /api/employees contract as the servlet application, without blocking a thread per request
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeController {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    // rows requested from the database per batch of demand while exporting
+    static final int EXPORT_PREFETCH = 256;
+
+    private EmployeeService employeeService;
+
+    public EmployeeController(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee){
+        return employeeService.saveEmployee(employee);
+    }
+
+    // one extra row is read to tell whether there is a next page
+    @GetMapping
+    public Mono<EmployeePage<Employee>> getAllEmployees(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                        @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit){
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeService.getEmployees(after, pageSize + 1)
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > pageSize;
+                    List<Employee> content = hasNext ? rows.subList(0, pageSize) : rows;
+                    Long nextCursor = hasNext ? content.get(content.size() - 1).getId() : null;
+                    return new EmployeePage<>(content, pageSize, nextCursor);
+                });
+    }
+
+    // newline-delimited JSON; a slow client slows the database reads instead of buffering the table
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Employee> exportEmployees(){
+        return employeeService.exportEmployees().limitRate(EXPORT_PREFETCH);
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") long employeeId,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        Mono<ResponseEntity<Employee>> employee = Mono.defer(() -> employeeService.getEmployeeById(employeeId))
+                .map(found -> withETag(ResponseEntity.ok(), found.getVersion()).body(found))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+        if (ifNoneMatch == null) {
+            return employee;
+        }
+        // version-only lookup, so an unchanged employee is never loaded or serialized
+        return employeeService.getEmployeeVersion(employeeId)
+                .flatMap(version -> ifNoneMatch.trim().equals("*") || eTagListContains(ifNoneMatch, version)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(version)).<Employee>build())
+                        : employee)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") long employeeId,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @RequestBody Employee employee){
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "firstName, lastName and email are required"));
+        }
+        return Mono.fromCallable(() -> expectedVersion(ifMatch))
+                .flatMap(expectedVersion -> employeeService.updateEmployee(employeeId, employee, expectedVersion.orElse(null)))
+                .map(updatedEmployee -> withETag(ResponseEntity.ok(), updatedEmployee.getVersion()).body(updatedEmployee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // partial update: only the fields present in the body are written
+    @PatchMapping("{id}")
+    public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable("id") long employeeId,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @RequestBody Employee employee){
+        return Mono.fromCallable(() -> expectedVersion(ifMatch))
+                .flatMap(expectedVersion -> employeeService.patchEmployee(employeeId, employee, expectedVersion.orElse(null)))
+                .map(patched -> patched
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId){
+        return employeeService.deleteEmployee(employeeId)
+                .map(deleted -> deleted
+                        ? new ResponseEntity<String>("Employee deleted successfully!.", HttpStatus.OK)
+                        : ResponseEntity.notFound().<String>build());
+    }
+
+    // strong ETag of an employee version: "3"
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Long version) {
+        return version != null ? builder.eTag(eTag(version)) : builder;
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    private static boolean eTagListContains(String header, long version) {
+        String expected = eTag(version);
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match: empty when absent or "*", otherwise the single strong ETag the client last saw
+    private static Optional<Long> expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Optional.of(Long.parseLong(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException e) {
+                // fall through: not one of our ETags
+            }
+        }
+        throw new EmployeeVersionMismatchException("If-Match does not name a current version: " + ifMatch);
+    }
+}
@@ -0,0 +1,19 @@
+package com.karthik.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// one keyset page of the employee listing; nextCursor is the "after" value for the next request,
+// or null when this is the last page
+@Getter
+@AllArgsConstructor
+public class EmployeePage<T> {
+
+    private List<T> content;
+
+    private int limit;
+
+    private Long nextCursor;
+}
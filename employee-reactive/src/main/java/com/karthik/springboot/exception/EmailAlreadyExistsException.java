@@ -0,0 +1,16 @@
+package com.karthik.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EmailAlreadyExistsException extends RuntimeException{
+
+    public EmailAlreadyExistsException(String message){
+        super(message);
+    }
+
+    public EmailAlreadyExistsException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.karthik.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class EmployeeVersionMismatchException extends RuntimeException{
+
+    public EmployeeVersionMismatchException(String message){
+        super(message);
+    }
+
+    public EmployeeVersionMismatchException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
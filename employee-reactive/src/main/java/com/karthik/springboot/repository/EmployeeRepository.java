@@ -0,0 +1,26 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeRepository extends ReactiveCrudRepository<Employee, Long>, EmployeeRepositoryCustom {
+
+    // keyset page: rows after the cursor id, in id order
+    @Query("select * from employees where id > :after order by id limit :limit")
+    Flux<Employee> findPage(long after, int limit);
+
+    // rows are requested from the driver only as fast as the subscriber (the HTTP response) demands them
+    @Query("select * from employees order by id")
+    Flux<Employee> streamAll();
+
+    @Query("select version from employees where id = :id")
+    Mono<Long> findVersionById(long id);
+
+    @Modifying
+    @Query("delete from employees where id = :id")
+    Mono<Integer> deleteEmployeeById(long id);
+}
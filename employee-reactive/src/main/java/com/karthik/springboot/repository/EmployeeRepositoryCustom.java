@@ -0,0 +1,14 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeRepositoryCustom {
+
+    // next id from the shared employees_seq block allocator
+    Mono<Long> nextId();
+
+    // one UPDATE of the non-null fields plus version = version + 1, guarded by expectedVersion when given;
+    // emits the number of rows updated
+    Mono<Integer> updateFields(long id, Employee changes, Long expectedVersion);
+}
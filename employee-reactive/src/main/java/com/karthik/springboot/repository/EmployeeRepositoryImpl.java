@@ -0,0 +1,101 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    // must match allocationSize of the JPA @SequenceGenerator, both sides hand out ids from the same blocks
+    static final int ID_BLOCK_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+
+    private final TransactionalOperator transactionalOperator;
+
+    // current block [nextId, blockEnd]; guarded by this
+    private long nextId;
+
+    private long blockEnd = -1;
+
+    public EmployeeRepositoryImpl(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            Long id = takeId();
+            return id != null ? Mono.just(id) : allocateBlock().then(nextId());
+        });
+    }
+
+    @Override
+    public Mono<Integer> updateFields(long id, Employee changes, Long expectedVersion) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (changes.getFirstName() != null) {
+            columns.put("first_name", changes.getFirstName());
+        }
+        if (changes.getLastName() != null) {
+            columns.put("last_name", changes.getLastName());
+        }
+        if (changes.getEmail() != null) {
+            columns.put("email", changes.getEmail());
+        }
+
+        String where = expectedVersion != null ? " where id = :id and version = :version" : " where id = :id";
+        String sql = columns.isEmpty()
+                ? "select count(*) from employees" + where
+                : "update employees set "
+                        + columns.keySet().stream().map(column -> column + " = :" + column).collect(Collectors.joining(", "))
+                        + ", version = version + 1" + where;
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            spec = spec.bind(column.getKey(), column.getValue());
+        }
+        return columns.isEmpty()
+                ? spec.map(row -> row.get(0, Long.class).intValue()).one()
+                : spec.fetch().rowsUpdated();
+    }
+
+    private synchronized Long takeId() {
+        return nextId <= blockEnd ? nextId++ : null;
+    }
+
+    // a racing caller may install its own block over this one; the unused ids are skipped, never reused
+    private synchronized long installBlock(long end) {
+        nextId = end - ID_BLOCK_SIZE + 1;
+        blockEnd = end;
+        return end;
+    }
+
+    // Hibernate's pooled optimizer on the MySQL table structure: read next_val under a row lock, advance it
+    // by the block size, and own the ids (value - blockSize, value]. The very first value (1) is skipped,
+    // because Hibernate treats it as the start of its own first block.
+    private Mono<Long> allocateBlock() {
+        Mono<Long> block = databaseClient.sql("select next_val from employees_seq for update")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("update employees_seq set next_val = :next where next_val = :value")
+                        .bind("next", value + ID_BLOCK_SIZE)
+                        .bind("value", value)
+                        .fetch()
+                        .rowsUpdated()
+                        .filter(updated -> updated == 1)
+                        .map(updated -> value));
+        return transactionalOperator.transactional(block)
+                .filter(value -> value > 1)
+                .map(this::installBlock)
+                .switchIfEmpty(Mono.defer(this::allocateBlock));
+    }
+}
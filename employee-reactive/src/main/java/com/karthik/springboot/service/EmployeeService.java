@@ -0,0 +1,24 @@
+package com.karthik.springboot.service;
+
+import com.karthik.springboot.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmployeeService {
+
+    Mono<Employee> saveEmployee(Employee employee);
+
+    Flux<Employee> getEmployees(long afterId, int limit);
+
+    Flux<Employee> exportEmployees();
+
+    Mono<Employee> getEmployeeById(long id);
+
+    Mono<Long> getEmployeeVersion(long id);
+
+    Mono<Employee> updateEmployee(long id, Employee employee, Long expectedVersion);
+
+    Mono<Boolean> patchEmployee(long id, Employee changes, Long expectedVersion);
+
+    Mono<Boolean> deleteEmployee(long id);
+}
@@ -0,0 +1,104 @@
+package com.karthik.springboot.service.impl;
+
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.service.EmployeeService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class EmployeeServiceImpl implements EmployeeService {
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
+    private EmployeeRepository employeeRepository;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    // the unique constraint decides email conflicts, so there is no check-then-insert race
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return employeeRepository.nextId()
+                .flatMap(id -> {
+                    employee.setId(id);
+                    employee.setVersion(null);
+                    return employeeRepository.save(employee);
+                })
+                .onErrorMap(DataIntegrityViolationException.class, e -> isEmailConflict(e)
+                        ? new EmailAlreadyExistsException("Employee already exist with given email:" + employee.getEmail(), e)
+                        : e);
+    }
+
+    @Override
+    public Flux<Employee> getEmployees(long afterId, int limit) {
+        return employeeRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public Flux<Employee> exportEmployees() {
+        return employeeRepository.streamAll();
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(long id, Employee employee, Long expectedVersion) {
+        return updateFields(id, employee, expectedVersion)
+                .filter(updated -> updated)
+                .flatMap(updated -> employeeRepository.findById(id));
+    }
+
+    @Override
+    public Mono<Boolean> patchEmployee(long id, Employee changes, Long expectedVersion) {
+        return updateFields(id, changes, expectedVersion);
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(long id) {
+        return employeeRepository.deleteEmployeeById(id).map(deleted -> deleted > 0);
+    }
+
+    // false when there is no such employee; a stale expectedVersion on an existing one is a mismatch
+    private Mono<Boolean> updateFields(long id, Employee changes, Long expectedVersion) {
+        return employeeRepository.updateFields(id, changes, expectedVersion)
+                .onErrorMap(DataIntegrityViolationException.class, e -> isEmailConflict(e)
+                        ? new EmailAlreadyExistsException("Employee already exist with given email:" + changes.getEmail(), e)
+                        : e)
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        return Mono.just(true);
+                    }
+                    if (expectedVersion == null) {
+                        return Mono.just(false);
+                    }
+                    return employeeRepository.findVersionById(id)
+                            .flatMap(version -> Mono.<Boolean>error(new EmployeeVersionMismatchException(
+                                    "Employee " + id + " is not at version " + expectedVersion)))
+                            .defaultIfEmpty(false);
+                });
+    }
+
+    private static boolean isEmailConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase().contains(EMAIL_UNIQUE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package com.karthik.springboot.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// closed-loop load against one or more employee API base URLs, e.g. the servlet application on 8080 and the
+// reactive one on 8081, each started with the same CPU, heap and connection-pool limits (see README). The reactive
+// application has no caches, so the servlet one is started with spring.cache.type=none and Hibernate's
+// second-level and query caches off; otherwise most lookups by id would be cache hits on one side only.
+// Every URL is seeded, warmed up, then measured; throughput and latency percentiles are printed per URL.
+//
+//   -Dload.concurrency=512   requests in flight
+//   -Dload.seed=1000         employees created before the run
+//   -Dload.warmup=10         seconds, not recorded
+//   -Dload.duration=30       seconds, recorded
+//   -Dload.list-ratio=0.1    share of keyset list requests; the rest are lookups by id
+public final class LoadBenchmark {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int concurrency = Integer.getInteger("load.concurrency", 512);
+
+    private final int seed = Integer.getInteger("load.seed", 1000);
+
+    private final int warmupSeconds = Integer.getInteger("load.warmup", 10);
+
+    private final int durationSeconds = Integer.getInteger("load.duration", 30);
+
+    private final double listRatio = Double.parseDouble(System.getProperty("load.list-ratio", "0.1"));
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: LoadBenchmark <base url>...   e.g. http://localhost:8080 http://localhost:8081");
+            System.exit(2);
+        }
+        LoadBenchmark benchmark = new LoadBenchmark();
+        System.out.printf("%-28s %10s %10s %10s %10s %10s %10s %8s%n",
+                "url", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (String url : args) {
+            benchmark.run(url.endsWith("/") ? url.substring(0, url.length() - 1) : url);
+        }
+    }
+
+    private void run(String baseUrl) throws Exception {
+        List<Long> ids = seed(baseUrl);
+        run(baseUrl, ids, warmupSeconds, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3), new AtomicLong());
+
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        AtomicLong errors = new AtomicLong();
+        long started = System.nanoTime();
+        run(baseUrl, ids, durationSeconds, latencies, errors);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%-28s %10d %10.0f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                baseUrl,
+                latencies.getTotalCount(),
+                latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0,
+                errors.get());
+    }
+
+    private List<Long> seed(String baseUrl) throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<Long> ids = new ArrayList<>(seed);
+        for (int i = 0; i < seed; i++) {
+            String body = "{\"firstName\":\"load" + i + "\",\"lastName\":\"" + runId + "\",\"email\":\"load" + i + "." + runId + "@gmail.com\"}";
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher id = ID.matcher(response.body());
+            if (response.statusCode() != 201 || !id.find()) {
+                throw new IllegalStateException("Seeding " + baseUrl + " failed: " + response.statusCode() + " " + response.body());
+            }
+            ids.add(Long.parseLong(id.group(1)));
+        }
+        return ids;
+    }
+
+    // each of the concurrency slots issues its next request as soon as the previous one completes
+    private void run(String baseUrl, List<Long> ids, int seconds, Histogram latencies, AtomicLong errors) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int slot = 0; slot < concurrency; slot++) {
+            next(baseUrl, ids, deadline, latencies, errors, done);
+        }
+        done.await();
+    }
+
+    private void next(String baseUrl, List<Long> ids, long deadline, Histogram latencies, AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = ids.get(random.nextInt(ids.size()));
+        String path = random.nextDouble() < listRatio
+                ? "/api/employees?after=" + id + "&limit=20"
+                : "/api/employees/" + id;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        long started = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+                    latencies.recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    next(baseUrl, ids, deadline, latencies, errors, done);
+                });
+    }
+}
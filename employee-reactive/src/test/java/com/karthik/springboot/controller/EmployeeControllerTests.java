@@ -0,0 +1,185 @@
+package com.karthik.springboot.controller;
+
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest
+public class EmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    private static Employee employee(long id, String firstName){
+        return Employee.builder().id(id).firstName(firstName).lastName("Pavan").email(firstName + "@gmail.com").version(0L).build();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee(){
+        // given
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            employee.setId(51L);
+            employee.setVersion(0L);
+            return Mono.just(employee);
+        });
+
+        // when - then
+        webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Karthik\",\"lastName\":\"Pavan\",\"email\":\"karthik@gmail.com\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(51)
+                .jsonPath("$.email").isEqualTo("karthik@gmail.com");
+    }
+
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409(){
+        // given
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willReturn(Mono.error(new EmailAlreadyExistsException("Employee already exist with given email:karthik@gmail.com")));
+
+        // when - then
+        webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Karthik\",\"lastName\":\"Pavan\",\"email\":\"karthik@gmail.com\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    public void givenMoreEmployees_whenGetAllEmployeesWithLimit_thenReturnNextCursor(){
+        // given - one row more than the page is read
+        given(employeeService.getEmployees(10L, 3))
+                .willReturn(Flux.just(employee(11L, "karthik"), employee(12L, "yogish"), employee(13L, "seetha")));
+
+        // when - then
+        webTestClient.get().uri("/api/employees?after=10&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.limit").isEqualTo(2)
+                .jsonPath("$.nextCursor").isEqualTo(12);
+    }
+
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamNdjson(){
+        // given
+        given(employeeService.exportEmployees())
+                .willReturn(Flux.just(employee(1L, "karthik"), employee(2L, "yogish")));
+
+        // when
+        Flux<Employee> body = webTestClient.get().uri("/api/employees/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Employee.class)
+                .getResponseBody();
+
+        // then
+        StepVerifier.create(body.map(Employee::getId))
+                .expectNext(1L, 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void givenEmployeeWithVersion_whenGetEmployeeById_thenReturnETag(){
+        // given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee(1L, "karthik")));
+
+        // when - then
+        webTestClient.get().uri("/api/employees/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("karthik");
+    }
+
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturn304(){
+        // given
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Mono.just(3L));
+
+        // when - then
+        webTestClient.get().uri("/api/employees/{id}", 1L)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+        verify(employeeService, never()).getEmployeeById(1L);
+    }
+
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty(){
+        // given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+
+        // when - then
+        webTestClient.get().uri("/api/employees/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenStaleETag_whenPatchEmployee_thenReturn412(){
+        // given
+        given(employeeService.patchEmployee(eq(1L), any(Employee.class), eq(2L)))
+                .willReturn(Mono.error(new EmployeeVersionMismatchException("Employee 1 is not at version 2")));
+
+        // when - then
+        webTestClient.patch().uri("/api/employees/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"lastName\":\"hp\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    public void givenMissingField_whenUpdateEmployee_thenReturn400(){
+        // when - then
+        webTestClient.put().uri("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\":\"Karthik\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(employeeService, never()).updateEmployee(any(Long.class), any(Employee.class), any());
+    }
+
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn200(){
+        // given
+        given(employeeService.deleteEmployee(1L)).willReturn(Mono.just(true));
+
+        // when - then
+        webTestClient.delete().uri("/api/employees/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Employee deleted successfully!.");
+    }
+}
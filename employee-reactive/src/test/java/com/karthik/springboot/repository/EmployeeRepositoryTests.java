@@ -0,0 +1,141 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.NONE)
+public class EmployeeRepositoryTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    public void setup(){
+        databaseClient.sql("delete from employees").fetch().rowsUpdated().block();
+    }
+
+    private Employee save(String name){
+        Employee employee = Employee.builder()
+                .id(employeeRepository.nextId().block())
+                .firstName(name)
+                .lastName("Pavan")
+                .email(name + "@gmail.com")
+                .build();
+        return employeeRepository.save(employee).block();
+    }
+
+    @DisplayName("ids come from blocks of the shared employees_seq table and never repeat")
+    @Test
+    public void givenConcurrentCallers_whenNextId_thenIdsAreUnique(){
+        // when
+        List<Long> ids = Flux.range(0, 500)
+                .flatMap(i -> employeeRepository.nextId(), 32)
+                .collectList()
+                .block();
+
+        // then
+        Set<Long> distinctIds = new HashSet<>(ids);
+        assertThat(distinctIds).hasSize(500);
+        assertThat(distinctIds).allMatch(id -> id > 1);
+    }
+
+    @DisplayName("save inserts with the pre-allocated id and version 0")
+    @Test
+    public void givenNewEmployee_whenSave_thenInsertWithVersionZero(){
+        // when
+        Employee savedEmployee = save("karthik");
+
+        // then
+        StepVerifier.create(employeeRepository.findById(savedEmployee.getId()))
+                .assertNext(employee -> {
+                    assertThat(employee.getFirstName()).isEqualTo("karthik");
+                    assertThat(employee.getVersion()).isEqualTo(0L);
+                })
+                .verifyComplete();
+    }
+
+    @DisplayName("keyset page returns rows after the cursor in id order")
+    @Test
+    public void givenEmployees_whenFindPage_thenRowsAfterCursor(){
+        // given
+        Employee first = save("karthik");
+        Employee second = save("yogish");
+        Employee third = save("seetha");
+
+        // when - then
+        StepVerifier.create(employeeRepository.findPage(first.getId(), 10).map(Employee::getId))
+                .expectNext(second.getId(), third.getId())
+                .verifyComplete();
+    }
+
+    @DisplayName("updateFields writes only the given fields and honours the expected version")
+    @Test
+    public void givenEmployee_whenUpdateFields_thenBumpVersion(){
+        // given
+        Employee employee = save("karthik");
+        Employee changes = Employee.builder().lastName("hp").build();
+
+        // when - then
+        StepVerifier.create(employeeRepository.updateFields(employee.getId(), changes, 0L))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(employeeRepository.updateFields(employee.getId(), changes, 0L))
+                .expectNext(0)
+                .verifyComplete();
+        StepVerifier.create(employeeRepository.findById(employee.getId()))
+                .assertNext(updatedEmployee -> {
+                    assertThat(updatedEmployee.getFirstName()).isEqualTo("karthik");
+                    assertThat(updatedEmployee.getLastName()).isEqualTo("hp");
+                    assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+                })
+                .verifyComplete();
+    }
+
+    @DisplayName("streamAll honours downstream demand")
+    @Test
+    public void givenEmployees_whenStreamAllWithLimitedDemand_thenEmitRequestedRows(){
+        // given
+        save("karthik");
+        save("yogish");
+        save("seetha");
+
+        // when - then
+        StepVerifier.create(employeeRepository.streamAll(), 2)
+                .expectNextCount(2)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @DisplayName("deleteEmployeeById reports whether a row was deleted")
+    @Test
+    public void givenEmployee_whenDeleteEmployeeById_thenOneRowDeleted(){
+        // given
+        Employee employee = save("karthik");
+
+        // when - then
+        StepVerifier.create(employeeRepository.deleteEmployeeById(employee.getId()))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(employeeRepository.deleteEmployeeById(employee.getId()))
+                .expectNext(0)
+                .verifyComplete();
+    }
+}
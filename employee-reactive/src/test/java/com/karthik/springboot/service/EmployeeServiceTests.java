@@ -0,0 +1,82 @@
+package com.karthik.springboot.service;
+
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
+import com.karthik.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = WebEnvironment.NONE)
+public class EmployeeServiceTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        databaseClient.sql("delete from employees").fetch().rowsUpdated().block();
+        employee = Employee.builder()
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build();
+    }
+
+    @DisplayName("saveEmployee assigns an id and answers a conflict for a taken email")
+    @Test
+    public void givenExistingEmail_whenSaveEmployee_thenThrowsException(){
+        // given
+        Employee savedEmployee = employeeService.saveEmployee(employee).block();
+        Employee duplicate = Employee.builder().firstName("yogish").lastName("hp").email("karthik@gmail.com").build();
+
+        // when - then
+        assertThat(savedEmployee.getId()).isGreaterThan(0);
+        assertThat(savedEmployee.getVersion()).isEqualTo(0L);
+        StepVerifier.create(employeeService.saveEmployee(duplicate))
+                .expectError(EmailAlreadyExistsException.class)
+                .verify();
+    }
+
+    @DisplayName("updateEmployee with a stale version is a mismatch, a missing id is empty")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsException(){
+        // given
+        Employee savedEmployee = employeeService.saveEmployee(employee).block();
+        Employee changes = Employee.builder().firstName("Ram").lastName("Pavan").email("ram@gmail.com").build();
+
+        // when - then
+        StepVerifier.create(employeeService.updateEmployee(savedEmployee.getId(), changes, 0L))
+                .assertNext(updatedEmployee -> {
+                    assertThat(updatedEmployee.getEmail()).isEqualTo("ram@gmail.com");
+                    assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+                })
+                .verifyComplete();
+        StepVerifier.create(employeeService.updateEmployee(savedEmployee.getId(), changes, 0L))
+                .expectError(EmployeeVersionMismatchException.class)
+                .verify();
+        StepVerifier.create(employeeService.updateEmployee(savedEmployee.getId() + 1000, changes, 0L))
+                .verifyComplete();
+    }
+
+    @DisplayName("patchEmployee reports false for a missing employee")
+    @Test
+    public void givenMissingEmployee_whenPatchEmployee_thenReturnFalse(){
+        // when - then
+        StepVerifier.create(employeeService.patchEmployee(12345L, Employee.builder().lastName("hp").build(), null))
+                .expectNext(false)
+                .verifyComplete();
+    }
+}
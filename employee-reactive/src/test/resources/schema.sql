@@ -0,0 +1,16 @@
+-- mirrors db/migration/mysql of the servlet application, including the table-backed id generator
+create table if not exists employees (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint not null,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+
+create table if not exists employees_seq (
+    next_val bigint
+);
+
+insert into employees_seq select 1 where not exists (select * from employees_seq);
@@ -0,0 +1,63 @@
+package com.karthik.springboot.benchmark;
+
+import com.karthik.springboot.SpringBootTestingApplication;
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// boots the application against an in-memory H2 database for the persistence benchmarks
+final class BenchmarkContext {
+
+    static final int SEED_EMPLOYEES = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    // caches "off" turns off the employees cache and Hibernate's second-level and query caches, so reads measure
+    // the data-access path rather than cache hits after the first iteration; "on" runs as configured
+    static ConfigurableApplicationContext start(String caches) {
+        List<String> args = new ArrayList<>(List.of("--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false"));
+        if (caches.equals("off")) {
+            args.add("--spring.cache.type=none");
+            args.add("--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+            args.add("--spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        }
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                // command-line arguments, so they take precedence over application.properties
+                .run(args.toArray(new String[0]));
+    }
+
+    // seeds SEED_EMPLOYEES rows and returns their ids
+    static List<Long> seed(EmployeeService employeeService) {
+        List<Employee> employees = new ArrayList<>(SEED_EMPLOYEES);
+        for (int i = 0; i < SEED_EMPLOYEES; i++) {
+            employees.add(employee(i));
+        }
+        List<Long> ids = new ArrayList<>(SEED_EMPLOYEES);
+        for (BulkCreateResult result : employeeService.saveAll(employees)) {
+            ids.add(result.getId());
+        }
+        return ids;
+    }
+
+    static Employee employee(long i) {
+        return Employee.builder()
+                .firstName("first" + i)
+                .lastName("last" + i)
+                .email("employee" + i + "@gmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.karthik.springboot.benchmark;
+
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    // reads are reported uncached and cached, see BenchmarkContext.start
+    @Param({"off", "on"})
+    private String caches;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(caches);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        BenchmarkContext.seed(context.getBean(EmployeeService.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail("employee" + randomSeed() + "@gmail.com");
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int seed = randomSeed();
+        return employeeRepository.findByJPQL("first" + seed, "last" + seed);
+    }
+
+    private static int randomSeed() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkContext.SEED_EMPLOYEES);
+    }
+}
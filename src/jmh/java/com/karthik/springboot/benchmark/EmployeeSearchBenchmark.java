@@ -0,0 +1,41 @@
+package com.karthik.springboot.benchmark;
+
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    // word prefix, short word prefix, substring, and a substring every row contains
+    @Param({"first123", "fi", "oyee12", "gmail"})
+    private String query;
+
+    private EmployeeSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        searchIndex = new EmployeeSearchIndex();
+        for (int i = 0; i < size; i++) {
+            Employee employee = BenchmarkContext.employee(i);
+            employee.setId(i + 1);
+            searchIndex.put(employee);
+        }
+    }
+
+    @Benchmark
+    public List<Employee> search() {
+        return searchIndex.search(query, 10);
+    }
+}
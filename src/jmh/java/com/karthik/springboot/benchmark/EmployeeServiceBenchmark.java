@@ -0,0 +1,65 @@
+package com.karthik.springboot.benchmark;
+
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    // reads are reported uncached and cached, see BenchmarkContext.start
+    @Param({"off", "on"})
+    private String caches;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private List<Long> ids;
+
+    private final AtomicLong nextEmployee = new AtomicLong(BenchmarkContext.SEED_EMPLOYEES);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start(caches);
+        employeeService = context.getBean(EmployeeService.class);
+        ids = BenchmarkContext.seed(employeeService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public Slice<Employee> getEmployeesPage() {
+        return employeeService.getEmployees(randomId(), 20);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkContext.employee(nextEmployee.getAndIncrement()));
+    }
+
+    private long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
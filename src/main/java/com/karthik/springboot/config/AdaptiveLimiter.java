@@ -0,0 +1,129 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// AIMD concurrency limit driven by measured latency: every call that finishes under the latency threshold while the
+// limit was in use grows it by 1/limit (about one slot per round of calls); a slower call, or one that failed
+// from overload, cuts it by backoffRatio, at most once per threshold so one slow burst is not punished many times.
+// Calls over the limit are rejected at once rather than queued. The shed-first class may only use a share of the
+// limit, so under pressure it is turned away while the other class still gets through
+public class AdaptiveLimiter {
+
+    public enum Priority {
+        READ,
+        WRITE
+    }
+
+    public static final String LIMIT_GAUGE = "employees.limit";
+
+    public static final String IN_FLIGHT_GAUGE = "employees.limit.in-flight";
+
+    public static final String REJECTED_COUNTER = "employees.limit.rejected";
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdNanos;
+
+    private final double backoffRatio;
+
+    private final Priority shedFirst;
+
+    private final double shedFirstShare;
+
+    private final MeterRegistry meterRegistry;
+
+    // guarded by this
+    private double limit;
+
+    private int inFlight;
+
+    private long lastBackoffNanos;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                           double backoffRatio, Priority shedFirst, double shedFirstShare, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.shedFirst = shedFirst;
+        this.shedFirstShare = shedFirstShare;
+        this.meterRegistry = meterRegistry;
+        this.lastBackoffNanos = System.nanoTime() - latencyThresholdNanos;
+        Gauge.builder(LIMIT_GAUGE, this, AdaptiveLimiter::getLimit)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, this, AdaptiveLimiter::getInFlight)
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    // null when the call should be turned away
+    public Permit tryAcquire(Priority priority) {
+        synchronized (this) {
+            double allowed = priority == shedFirst ? limit * shedFirstShare : limit;
+            if (inFlight < Math.max(1, (int) allowed)) {
+                inFlight++;
+                return new Permit(inFlight);
+            }
+        }
+        Counter.builder(REJECTED_COUNTER)
+                .tag("limiter", name)
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .increment();
+        return null;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized void onComplete(long startNanos, int inFlightAtStart, boolean overloaded) {
+        inFlight--;
+        long now = System.nanoTime();
+        if (overloaded || now - startNanos > latencyThresholdNanos) {
+            if (now - lastBackoffNanos >= latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastBackoffNanos = now;
+            }
+        } else if (inFlightAtStart * 2 >= limit) {
+            // only grow a limit that is being used, or an idle service would drift up to maxLimit
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+
+        private final int inFlightAtStart;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        // later calls are ignored, so an async request can release from both its error and completion callbacks
+        public void release(boolean overloaded) {
+            if (released.compareAndSet(false, true)) {
+                onComplete(startNanos, inFlightAtStart, overloaded);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.service.impl.EmployeeBatchLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// getEmployeeById calls for different ids within a short window share one findAllById
+@Configuration
+public class BatchingConfig {
+
+    @Bean
+    public EmployeeBatchLoader employeeBatchLoader(EmployeeRepository employeeRepository,
+                                                   @Value("${employees.batching.enabled:false}") boolean enabled,
+                                                   @Value("${employees.batching.window:2ms}") Duration window,
+                                                   @Value("${employees.batching.max-batch-size:100}") int maxBatchSize) {
+        return new EmployeeBatchLoader(enabled, employeeRepository::findAllById, window, maxBatchSize);
+    }
+}
@@ -0,0 +1,76 @@
+package com.karthik.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// outside the limiters and the transaction advice, so a cache hit is neither shed, nor waits for a pool permit,
+// nor opens a transaction
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 3)
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    // encoded GET /api/employees/{id} bodies; evicted with EMPLOYEES_CACHE, which must come first in cacheNames
+    public static final String EMPLOYEE_RESPONSES_CACHE = "employee-responses";
+
+    // hit/miss/eviction counts are published by actuator as cache.gets, cache.evictions, ...
+    // spring.cache.type=none leaves Spring Boot's no-op manager in its place, e.g. for load runs against the database
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(@Value("${employees.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${employees.cache.ttl:10m}") Duration ttl,
+                                     @Value("${employees.cache.negative-ttl:30s}") Duration negativeTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EMPLOYEES_CACHE, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(EMPLOYEE_RESPONSES_CACHE, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    // misses are cached as NullValue; they get the shorter TTL so a created employee shows up quickly
+    static class NegativeAwareExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+
+        private final long negativeTtlNanos;
+
+        NegativeAwareExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value == NullValue.INSTANCE ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
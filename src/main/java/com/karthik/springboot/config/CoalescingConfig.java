@@ -0,0 +1,17 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// concurrent getEmployeeById / getEmployeeByEmail calls for the same key share one query
+@Configuration
+@ConditionalOnProperty(name = "employees.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingConfig {
+
+    @Bean
+    public SingleFlightAspect singleFlightAspect(MeterRegistry meterRegistry) {
+        return new SingleFlightAspect(meterRegistry);
+    }
+}
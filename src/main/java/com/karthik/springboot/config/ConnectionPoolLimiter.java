@@ -0,0 +1,82 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.exception.ConnectionLimitExceededException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// caps the calls holding a database connection at the Hikari pool size, so thousands of virtual threads wait here
+// (cheaply) instead of inside Hikari. A permit is taken where a connection is borrowed: a service method that starts
+// a transaction, or a repository call outside one. Cache hits, the in-memory search and callers waiting on a batch
+// take none, and an export holds one exactly as long as its connection; nested calls reuse the outer permit
+@Aspect
+public class ConnectionPoolLimiter implements Ordered {
+
+    private final Semaphore permits;
+
+    private final long maxWaitNanos;
+
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public ConnectionPoolLimiter(int permits, Duration maxWait) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Around("execution(* com.karthik.springboot.service.EmployeeService+.*(..)) && @annotation(transactional)")
+    public Object limitTransaction(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        Propagation propagation = transactional.propagation();
+        if (propagation == Propagation.SUPPORTS || propagation == Propagation.NOT_SUPPORTED
+                || propagation == Propagation.NEVER) {
+            return joinPoint.proceed();
+        }
+        return limit(joinPoint);
+    }
+
+    @Around("execution(* com.karthik.springboot.repository.EmployeeRepository+.*(..))")
+    public Object limitRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return limit(joinPoint);
+    }
+
+    private Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] calls = depth.get();
+        if (calls[0] > 0) {
+            return proceed(joinPoint, calls);
+        }
+        if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            throw new ConnectionLimitExceededException("No database connection available within " + Duration.ofNanos(maxWaitNanos));
+        }
+        try {
+            return proceed(joinPoint, calls);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // inside the cache advice and the adaptive limit, so a hit or a shed call takes no permit, and outside
+    // @Transactional, so the permit is taken before a connection is borrowed
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, int[] calls) throws Throwable {
+        calls[0]++;
+        try {
+            return joinPoint.proceed();
+        } finally {
+            calls[0]--;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+
+// employees.service and employees.repository timers, tagged by operation (method name), outcome (SUCCESS/ERROR)
+// and exception; percentile histograms are switched on in application.properties
+@Aspect
+public class EmployeeTimingAspect implements Ordered {
+
+    public static final String SERVICE_TIMER = "employees.service";
+
+    public static final String REPOSITORY_TIMER = "employees.repository";
+
+    private final MeterRegistry meterRegistry;
+
+    public EmployeeTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.karthik.springboot.service.EmployeeService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    // detach and flushAndClear are persistence-context housekeeping, called per row or per batch; timing them would
+    // fill the histogram with samples that are not queries (a flush's statements show up in the service timer)
+    @Around("execution(* com.karthik.springboot.repository.EmployeeRepository+.*(..))"
+            + " && !execution(* com.karthik.springboot.repository.EmployeeRepositoryCustom+.detach(..))"
+            + " && !execution(* com.karthik.springboot.repository.EmployeeRepositoryCustom+.flushAndClear(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, joinPoint);
+    }
+
+    // outermost, so time spent waiting for the connection limiter is included
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", exception.equals("none") ? "SUCCESS" : "ERROR")
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
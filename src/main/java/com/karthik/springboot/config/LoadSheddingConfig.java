@@ -0,0 +1,55 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// adaptive concurrency limits on the employee API (limiter=http) and on service transactions and bare repository
+// calls (limiter=repository);
+// employees.limit / employees.limit.in-flight gauges and employees.limit.rejected counters, tagged by limiter
+@Configuration
+@ConditionalOnProperty(name = "employees.limits.enabled", havingValue = "true")
+public class LoadSheddingConfig {
+
+    @Value("${employees.limits.shed-first:read}")
+    private AdaptiveLimiter.Priority shedFirst;
+
+    @Value("${employees.limits.shed-first-share:0.8}")
+    private double shedFirstShare;
+
+    @Value("${employees.limits.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${employees.limits.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Bean
+    public FilterRegistrationBean<RequestLimitFilter> requestLimitFilter(MeterRegistry meterRegistry,
+                                                                        @Value("${employees.limits.http.initial:50}") int initialLimit,
+                                                                        @Value("${employees.limits.http.min:5}") int minLimit,
+                                                                        @Value("${employees.limits.http.max:400}") int maxLimit,
+                                                                        @Value("${employees.limits.http.latency-threshold:500ms}") Duration latencyThreshold) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("http", initialLimit, minLimit, maxLimit, latencyThreshold,
+                backoffRatio, shedFirst, shedFirstShare, meterRegistry);
+        FilterRegistrationBean<RequestLimitFilter> registration =
+                new FilterRegistrationBean<>(new RequestLimitFilter(limiter, retryAfter));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public RepositoryLimitAspect repositoryLimitAspect(MeterRegistry meterRegistry,
+                                                       @Value("${employees.limits.repository.initial:20}") int initialLimit,
+                                                       @Value("${employees.limits.repository.min:2}") int minLimit,
+                                                       @Value("${employees.limits.repository.max:200}") int maxLimit,
+                                                       @Value("${employees.limits.repository.latency-threshold:100ms}") Duration latencyThreshold) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("repository", initialLimit, minLimit, maxLimit, latencyThreshold,
+                backoffRatio, shedFirst, shedFirstShare, meterRegistry);
+        return new RepositoryLimitAspect(limiter, retryAfter);
+    }
+}
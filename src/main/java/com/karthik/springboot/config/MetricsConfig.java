@@ -0,0 +1,14 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public EmployeeTimingAspect employeeTimingAspect(MeterRegistry meterRegistry) {
+        return new EmployeeTimingAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.sql.ReplicaRoutingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// carries each client's read-your-writes window between its requests in a cookie holding the time of its last
+// write, so a write keeps only the writer's reads on the primary rather than everyone's
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "employees-last-write";
+
+    private final ReplicaRoutingDataSource dataSource;
+
+    public ReadYourWritesFilter(ReplicaRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        dataSource.bind(new ReplicaRoutingDataSource.Client(lastWrite(request), millis -> {
+            // service transactions commit before the controller writes the body, so the cookie still goes out
+            if (!response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(millis));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) dataSource.getReadYourWrites().toSeconds() + 1);
+                response.addCookie(cookie);
+            }
+        }));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            dataSource.unbind();
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
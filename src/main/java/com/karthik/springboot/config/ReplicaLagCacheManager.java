@@ -0,0 +1,130 @@
+package com.karthik.springboot.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// with read replicas, another client's read from a replica that has not caught up can put the old version of a row
+// back into a cache right after the write that evicted it. Every eviction is repeated once the replica lag allowed
+// for (the read-your-writes window) has passed, so such an entry outlives the window by at most a few millis
+public class ReplicaLagCacheManager implements CacheManager, DisposableBean {
+
+    private final CacheManager delegate;
+
+    private final long lagMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, LagCache> caches = new ConcurrentHashMap<>();
+
+    public ReplicaLagCacheManager(CacheManager delegate, Duration lag) {
+        this.delegate = delegate;
+        this.lagMillis = lag.toMillis();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache target = delegate.getCache(name);
+        return target != null ? caches.computeIfAbsent(name, key -> new LagCache(target)) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void later(Runnable eviction) {
+        scheduler.schedule(eviction, lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public final class LagCache implements Cache {
+
+        private final Cache target;
+
+        private LagCache(Cache target) {
+            this.target = target;
+        }
+
+        // for the cache metrics binder, see ReplicaRoutingConfig
+        public Cache getTargetCache() {
+            return target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return target.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return target.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return target.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return target.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+            later(() -> target.evict(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            later(() -> target.evict(key));
+            return target.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+            later(target::clear);
+        }
+
+        @Override
+        public boolean invalidate() {
+            later(target::clear);
+            return target.invalidate();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.sql.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// employees.replicas.urls set: replaces Boot's DataSource with one that sends read-only transactions to the
+// replicas. Primary and replica pools are not beans of their own, so the datasource-proxy listeners see
+// every statement exactly once, on the routing DataSource. The read-your-writes window is per client (see
+// ReadYourWritesFilter), so the shared caches are guarded against rows read back from a lagging replica
+@Configuration
+@ConditionalOnProperty(name = "employees.replicas.urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${employees.replicas.urls}") String[] urls,
+                                               @Value("${employees.replicas.username:${spring.datasource.username:}}") String username,
+                                               @Value("${employees.replicas.password:${spring.datasource.password:}}") String password,
+                                               @Value("${employees.replicas.balancing:round-robin}") ReplicaRoutingDataSource.Balancing balancing,
+                                               @Value("${employees.replicas.read-your-writes:2s}") Duration readYourWrites,
+                                               @Value("${employees.replicas.retry-after:10s}") Duration retryAfter,
+                                               @Value("${employees.replicas.connection-timeout:1s}") Duration connectionTimeout) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, environment, meterRegistry);
+        String poolName = Objects.requireNonNullElse(primary.getPoolName(), ReplicaRoutingDataSource.PRIMARY);
+
+        List<DataSource> replicas = new ArrayList<>(urls.length);
+        for (int index = 0; index < urls.length; index++) {
+            HikariDataSource replica = new HikariDataSource();
+            configurePool(replica, environment, meterRegistry);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(urls[index].trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setPoolName(poolName + "-" + ReplicaRoutingDataSource.replicaKey(index));
+            // a lagging replica must never take writes by accident
+            replica.setReadOnly(true);
+            // an unreachable replica neither fails startup nor holds a read for long before it falls back
+            replica.setInitializationFailTimeout(-1);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, balancing, readYourWrites, retryAfter);
+    }
+
+    // the dataSource bean is wrapped by the datasource-proxy listeners by now
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(DataSource dataSource) throws SQLException {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(dataSource.unwrap(ReplicaRoutingDataSource.class)));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor replicaLagCacheManager(
+            @Value("${employees.replicas.read-your-writes:2s}") Duration readYourWrites) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof CacheManager && !(bean instanceof ReplicaLagCacheManager)
+                        ? new ReplicaLagCacheManager((CacheManager) bean, readYourWrites) : bean;
+            }
+        };
+    }
+
+    // keeps the cache.* metrics of the Caffeine caches behind ReplicaLagCacheManager
+    @Bean
+    public CacheMeterBinderProvider<ReplicaLagCacheManager.LagCache> replicaLagCacheMeterBinderProvider() {
+        CaffeineCacheMeterBinderProvider caffeine = new CaffeineCacheMeterBinderProvider();
+        return (cache, tags) -> cache.getTargetCache() instanceof CaffeineCache
+                ? caffeine.getMeterBinder((CaffeineCache) cache.getTargetCache(), tags) : null;
+    }
+
+    // Hibernate's second-level and query caches can be filled from a lagging replica the same way, and sit behind
+    // the employees cache anyway, so they are off rather than repeating their evictions too
+    @Bean
+    public HibernatePropertiesCustomizer replicaSecondLevelCache() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        };
+    }
+
+    // every pool takes the spring.datasource.hikari.* settings, and reports hikaricp.* metrics under its pool name
+    private static void configurePool(HikariDataSource pool, Environment environment,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.exception.ConcurrencyLimitExceededException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+// adaptive limit around the units of database work, which track the database's latency more closely than whole
+// requests do: a service method that starts a transaction, or a repository call outside one. The decision is made
+// before the transaction begins, so a saveAll is turned away whole rather than failing after some of its rows.
+// Read-only transactions are reads; outside a transaction, find/stream/exists/count/get repository methods (get
+// covers getById) are. Nested calls share the outer permit. An export is left out: its transaction lasts as long as
+// the client takes to read the stream, which says nothing about the database
+@Aspect
+public class RepositoryLimitAspect implements Ordered {
+
+    private final AdaptiveLimiter limiter;
+
+    private final Duration retryAfter;
+
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public RepositoryLimitAspect(AdaptiveLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Around("execution(* com.karthik.springboot.service.EmployeeService+.exportEmployees(..))")
+    public Object exempt(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(joinPoint, depth.get());
+    }
+
+    @Around("execution(* com.karthik.springboot.service.EmployeeService+.*(..)) && @annotation(transactional)"
+            + " && !execution(* com.karthik.springboot.service.EmployeeService+.exportEmployees(..))")
+    public Object limitTransaction(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        Propagation propagation = transactional.propagation();
+        if (propagation == Propagation.SUPPORTS || propagation == Propagation.NOT_SUPPORTED
+                || propagation == Propagation.NEVER) {
+            return joinPoint.proceed();
+        }
+        return limit(joinPoint, transactional.readOnly());
+    }
+
+    // detach only touches the persistence context
+    @Around("execution(* com.karthik.springboot.repository.EmployeeRepository+.*(..))"
+            + " && !execution(* com.karthik.springboot.repository.EmployeeRepositoryCustom+.detach(..))")
+    public Object limitRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return limit(joinPoint, isRead(joinPoint.getSignature().getName()));
+    }
+
+    private Object limit(ProceedingJoinPoint joinPoint, boolean read) throws Throwable {
+        int[] calls = depth.get();
+        if (calls[0] > 0) {
+            return proceed(joinPoint, calls);
+        }
+        AdaptiveLimiter.Priority priority = read ? AdaptiveLimiter.Priority.READ : AdaptiveLimiter.Priority.WRITE;
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire(priority);
+        if (permit == null) {
+            throw new ConcurrencyLimitExceededException("Database concurrency limit reached", retryAfter);
+        }
+        boolean overloaded = false;
+        try {
+            return proceed(joinPoint, calls);
+        } catch (TransientDataAccessException | DataAccessResourceFailureException
+                 | CannotCreateTransactionException e) {
+            overloaded = true;
+            throw e;
+        } finally {
+            permit.release(overloaded);
+        }
+    }
+
+    // inside the cache advice, so a hit is never shed, and outside the connection limiter, so a call is turned away
+    // before it queues for a connection; time spent queued there counts as latency
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+
+    static boolean isRead(String method) {
+        return method.startsWith("find") || method.startsWith("stream") || method.startsWith("exists")
+                || method.startsWith("count") || method.startsWith("get");
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, int[] calls) throws Throwable {
+        calls[0]++;
+        try {
+            return joinPoint.proceed();
+        } finally {
+            calls[0]--;
+        }
+    }
+}
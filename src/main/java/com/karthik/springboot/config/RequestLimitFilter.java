@@ -0,0 +1,50 @@
+package com.karthik.springboot.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+// adaptive limit in front of the employee API: GET/HEAD are reads, everything else writes. A request over the limit
+// gets 503 with Retry-After before it reaches Tomcat's worker queue of controllers; a 503 from further in (the
+// repository limiter, the connection limiter) counts as overload, as does a response slower than the threshold.
+// A streamed (async) response gives its slot back when the handler hands the stream off: how long the client takes
+// to read an export says nothing about load, and holding the slot would let a few exports cut and use up the limit
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveLimiter limiter;
+
+    private final Duration retryAfter;
+
+    public RequestLimitFilter(AdaptiveLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = request.getMethod().equals("GET") || request.getMethod().equals("HEAD");
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire(read ? AdaptiveLimiter.Priority.READ : AdaptiveLimiter.Priority.WRITE);
+        if (permit == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permit.release(isOverloaded(response));
+        }
+    }
+
+    private static boolean isOverloaded(HttpServletResponse response) {
+        return response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+}
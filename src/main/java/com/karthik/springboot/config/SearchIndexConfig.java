@@ -0,0 +1,32 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import com.karthik.springboot.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class SearchIndexConfig {
+
+    @Bean
+    public EmployeeSearchIndex employeeSearchIndex() {
+        return new EmployeeSearchIndex();
+    }
+
+    // filled from the table before the web server starts accepting requests; the service keeps it current after that
+    @Bean
+    public SmartInitializingSingleton employeeSearchIndexLoader(EmployeeSearchIndex employeeSearchIndex,
+                                                                ObjectProvider<EmployeeService> employeeService) {
+        return () -> {
+            long started = System.nanoTime();
+            employeeSearchIndex.clear();
+            employeeService.getObject().exportEmployees(employeeSearchIndex::put);
+            log.info("Search index built with {} employees in {} ms", employeeSearchIndex.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// request coalescing: concurrent lookups with the same arguments share one in-flight call and its result
+// (or exception). employees.coalesced counts the calls that waited on another instead of querying,
+// employees.coalesced.leaders the calls that did the work
+@Aspect
+public class SingleFlightAspect implements Ordered {
+
+    public static final String COALESCED_COUNTER = "employees.coalesced";
+
+    public static final String LEADER_COUNTER = "employees.coalesced.leaders";
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.karthik.springboot.service.EmployeeService+.getEmployeeById(..))"
+            + " || execution(* com.karthik.springboot.service.EmployeeService+.getEmployeeByEmail(..))")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        List<Object> key = new ArrayList<>(Arrays.asList(joinPoint.getArgs()));
+        key.add(0, operation);
+
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, call);
+        if (leader != null) {
+            counter(COALESCED_COUNTER, operation).increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        counter(LEADER_COUNTER, operation).increment();
+        try {
+            Object result = joinPoint.proceed();
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // later callers start a new flight and see whatever was written after this one read
+            inFlight.remove(key, call);
+        }
+    }
+
+    // inside the timers, outside the connection limiter: callers that wait on a flight never hold a permit
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
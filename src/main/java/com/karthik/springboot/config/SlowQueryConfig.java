@@ -0,0 +1,56 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.sql.QueryStatsEndpoint;
+import com.karthik.springboot.sql.SlowQueryLog;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// wraps the DataSource with datasource-proxy so every statement goes through the slow-query log
+@Configuration
+@ConditionalOnProperty(name = "employees.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${employees.slow-query.threshold:200ms}") Duration threshold,
+                                     @Value("${employees.slow-query.sample-rate:0}") double sampleRate,
+                                     @Value("${employees.slow-query.max-shapes:500}") int maxShapes,
+                                     @Value("${employees.slow-query.log-queue-capacity:1000}") int logQueueCapacity) {
+        return new SlowQueryLog(threshold, sampleRate, maxShapes, logQueueCapacity);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ProxyDataSource) {
+                    ((ProxyDataSource) bean).addListener(slowQueryLog.getObject());
+                    return bean;
+                }
+                if (bean instanceof DataSource) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(slowQueryLog.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public QueryStatsEndpoint queryStatsEndpoint(SlowQueryLog slowQueryLog) {
+        return new QueryStatsEndpoint(slowQueryLog);
+    }
+}
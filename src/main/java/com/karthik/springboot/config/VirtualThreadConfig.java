@@ -0,0 +1,63 @@
+package com.karthik.springboot.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// employees.virtual-threads.enabled=true: Tomcat request handling and async exports run on virtual threads
+// (JDK 21+, otherwise the platform pools are kept), and database work is gated by the pool-sized limiter
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "employees.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private final ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (virtualThreads != null) {
+                protocolHandler.setExecutor(virtualThreads);
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                if (virtualThreads != null) {
+                    configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreads));
+                }
+            }
+        };
+    }
+
+    @Bean
+    public ConnectionPoolLimiter connectionPoolLimiter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                                       @Value("${employees.virtual-threads.connection-wait:30s}") Duration maxWait) {
+        return new ConnectionPoolLimiter(poolSize, maxWait);
+    }
+
+    // looked up reflectively because the build targets Java 17
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need Java 21+ (running {}); keeping platform thread pools",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
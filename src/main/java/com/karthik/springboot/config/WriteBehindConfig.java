@@ -0,0 +1,36 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.service.EmployeeService;
+import com.karthik.springboot.service.impl.EmployeeCreateQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// POST /api/employees answers 202 and the row is inserted later, in batches, when employees.write-behind.enabled
+@Configuration
+public class WriteBehindConfig {
+
+    // employees.write-behind.pending: accepted creates not yet written
+    @Bean(initMethod = "start")
+    public EmployeeCreateQueue employeeCreateQueue(EmployeeService employeeService, MeterRegistry meterRegistry,
+                                                   @Value("${employees.write-behind.enabled:false}") boolean enabled,
+                                                   @Value("${employees.write-behind.log:data/employee-creates.log}") Path logFile,
+                                                   @Value("${employees.write-behind.capacity:10000}") int capacity,
+                                                   @Value("${employees.write-behind.batch-size:500}") int batchSize,
+                                                   @Value("${employees.write-behind.max-delay:20ms}") Duration maxDelay,
+                                                   @Value("${employees.write-behind.retry-delay:1s}") Duration retryDelay,
+                                                   @Value("${employees.write-behind.status-ttl:1h}") Duration statusTtl) {
+        EmployeeCreateQueue createQueue = new EmployeeCreateQueue(enabled, employeeService, logFile, capacity,
+                batchSize, maxDelay, retryDelay, statusTtl);
+        if (enabled) {
+            Gauge.builder("employees.write-behind.pending", createQueue, EmployeeCreateQueue::pending)
+                    .register(meterRegistry);
+        }
+        return createQueue;
+    }
+}
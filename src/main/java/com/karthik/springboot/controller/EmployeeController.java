@@ -1,65 +1,322 @@
 package com.karthik.springboot.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.dto.BulkDeleteResult;
+import com.karthik.springboot.dto.CreateStatus;
+import com.karthik.springboot.dto.EmployeePage;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
 import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepositoryCustom;
 import com.karthik.springboot.service.EmployeeService;
+import com.karthik.springboot.service.impl.EmployeeCreateQueue;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    static final int DEFAULT_SEARCH_RESULTS = 10;
+
+    static final int MAX_SEARCH_RESULTS = 50;
+
+    // a strong ETag names one representation: JSON keeps the plain "3", the binary encodings are "3-cbor" and "3-smile"
+    private static final Map<MediaType, String> ETAG_SUFFIXES = Map.of(
+            MediaType.APPLICATION_JSON, "",
+            MediaType.APPLICATION_CBOR, "-cbor",
+            EmployeeResponseCache.APPLICATION_SMILE, "-smile");
+
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private EmployeeCreateQueue createQueue;
+
+    private EmployeeResponseCache responseCache;
+
+    private ObjectWriter employeeWriter;
+
+    public EmployeeController(EmployeeService employeeService, EmployeeCreateQueue createQueue,
+                              EmployeeResponseCache responseCache, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.createQueue = createQueue;
+        this.responseCache = responseCache;
+        this.employeeWriter = objectMapper.writerFor(Employee.class);
     }
 
+    // with write-behind on: 202 and a status URL once the create is logged; the row is inserted later
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee){
-        return employeeService.saveEmployee(employee);
+    public ResponseEntity<?> createEmployee(@RequestBody Employee employee){
+        if (createQueue.isEnabled()) {
+            if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "firstName, lastName and email are required");
+            }
+            CreateStatus status = createQueue.submit(employee);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                            .path("/creates/{ticket}")
+                            .buildAndExpand(status.getTicket())
+                            .toUri())
+                    .body(status);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+    }
+
+    // status of a write-behind create; once CREATED, Location points at the employee
+    @GetMapping("creates/{ticket}")
+    public ResponseEntity<CreateStatus> getCreateStatus(@PathVariable("ticket") String ticket){
+        return createQueue.getStatus(ticket)
+                .map(status -> status.getStatus() == CreateStatus.Status.CREATED
+                        ? ResponseEntity.ok()
+                                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                        .path("/api/employees/{id}")
+                                        .buildAndExpand(status.getId())
+                                        .toUri())
+                                .body(status)
+                        : ResponseEntity.ok(status))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // per-row outcome: CREATED with the new id, or CONFLICT when the email is taken or repeated
+    @PostMapping("bulk")
+    public List<BulkCreateResult> createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveAll(employees);
+    }
+
+    // fields=firstName,email selects only those columns (plus id, which the cursor needs);
+    // email=... is an exact lookup, answered as a page of zero or one employee;
+    // ids=1,2,3 is a multi-get of at most MAX_PAGE_SIZE ids, answered in the order asked with unknown ids left out.
+    // ids and email take no other filter, projection or cursor; such combinations are rejected rather than ignored
     @GetMapping
-    public List<Employee> getAllEmployees(){
-        return employeeService.getAllEmployees();
+    public ResponseEntity<EmployeePage<?>> getAllEmployees(@RequestParam(value = "after", required = false) Long after,
+                                           @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                           @RequestParam(value = "fields", required = false) List<String> fields,
+                                           @RequestParam(value = "email", required = false) String email,
+                                           @RequestParam(value = "ids", required = false) List<Long> ids){
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (ids != null && email != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids and email cannot be combined");
+        }
+        if ((ids != null || email != null) && (fields != null || after != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fields and after apply to pages, not to ids or email");
+        }
+        if (ids != null && ids.size() > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_PAGE_SIZE + " ids");
+        }
+        if (ids != null) {
+            List<Employee> content = employeeService.getEmployeesByIds(ids);
+            return page(new EmployeePage<>(content, content.size(), null));
+        }
+        if (email != null) {
+            List<Employee> content = employeeService.getEmployeeByEmail(email).map(List::of).orElse(List.of());
+            return page(new EmployeePage<>(content, pageSize, null));
+        }
+        long cursor = after != null ? after : 0;
+        if (fields != null) {
+            Slice<Map<String, Object>> page = employeeService.getEmployeeFields(cursor, pageSize, checkFields(fields));
+            List<Map<String, Object>> content = page.getContent();
+            Long nextCursor = page.hasNext() ? (Long) content.get(content.size() - 1).get("id") : null;
+            return page(new EmployeePage<>(content, pageSize, nextCursor));
+        }
+        Slice<Employee> page = employeeService.getEmployees(cursor, pageSize);
+        List<Employee> content = page.getContent();
+        Long nextCursor = page.hasNext() ? content.get(content.size() - 1).getId() : null;
+        return page(new EmployeePage<>(content, pageSize, nextCursor));
+    }
+
+    // pages are JSON, CBOR or Smile by Accept, so shared caches must key them on it
+    private static ResponseEntity<EmployeePage<?>> page(EmployeePage<?> page) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    // newline-delimited JSON, one employee per line, written as rows come off the database cursor
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees(){
+        StreamingResponseBody body = outputStream -> employeeService.exportEmployees(employee -> {
+            try {
+                outputStream.write(employeeWriter.writeValueAsBytes(employee));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    // type-ahead: best matches on name or email, answered from memory without touching the database
+    @GetMapping("search")
+    public ResponseEntity<List<Employee>> searchEmployees(@RequestParam("q") String query,
+                                                          @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SEARCH_RESULTS) int limit){
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(employeeService.searchEmployees(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))));
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId){
+    public ResponseEntity<?> getEmployeeById(@PathVariable("id") long employeeId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                             @RequestParam(value = "fields", required = false) List<String> fields){
+        if (fields != null) {
+            // a partial representation carries no ETag, so it is never used for conditional requests
+            return employeeService.getEmployeeFieldsById(employeeId, checkFields(fields))
+                    .<ResponseEntity<?>>map(selected -> ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(selected))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
+        MediaType mediaType = responseCache.negotiate(accept);
+        if (ifNoneMatch != null) {
+            // the cached employee's version, else a version-only lookup, so an unchanged employee is never loaded
+            // or serialized. The 304 is for the representation this Accept gets, so the ETag compared is that one's
+            Optional<Long> version = responseCache.cachedVersion(employeeId, mediaType)
+                    .or(() -> employeeService.getEmployeeVersion(employeeId));
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String eTag = eTag(version.get(), mediaType);
+            if (ifNoneMatch.trim().equals("*") || eTagListContains(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
+        if (mediaType != null) {
+            // the encoded bytes go out as they are, through the byte[] converter
+            return responseCache.get(employeeId, mediaType, employeeService::getEmployeeById)
+                    .<ResponseEntity<?>>map(encoded -> withETag(ResponseEntity.ok(), encoded.getVersion(), mediaType)
+                            .contentType(mediaType)
+                            .body(encoded.getBody()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        }
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> withETag(ResponseEntity.ok(), employee.getVersion(), null).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
                                                    @RequestBody Employee employee){
-        return employeeService.getEmployeeById(employeeId)
-                .map(savedEmployee -> {
-
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-
-                })
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "firstName, lastName and email are required");
+        }
+        MediaType mediaType = responseCache.negotiate(accept);
+        return employeeService.updateEmployee(employeeId, employee, expectedVersion(ifMatch))
+                .map(updatedEmployee -> withETag(ResponseEntity.ok(), updatedEmployee.getVersion(), mediaType).body(updatedEmployee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // partial update: only the fields present in the body are written
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody Employee employee){
+        return employeeService.patchEmployee(employeeId, employee, expectedVersion(ifMatch))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
 
-        employeeService.deleteEmployee(employeeId);
+        if (!employeeService.deleteEmployee(employeeId)) {
+            return ResponseEntity.notFound().build();
+        }
 
         return new ResponseEntity<String>("Employee deleted successfully!.", HttpStatus.OK);
 
     }
 
+    @DeleteMapping
+    public BulkDeleteResult deleteEmployees(@RequestBody List<Long> employeeIds){
+        List<Long> distinctIds = employeeIds.stream().distinct().collect(Collectors.toList());
+        return new BulkDeleteResult(distinctIds.size(), employeeService.deleteEmployees(distinctIds));
+    }
+
+    private static List<String> checkFields(List<String> fields) {
+        List<String> selected = fields.stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        for (String field : selected) {
+            if (!EmployeeRepositoryCustom.PROJECTABLE_FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + field);
+            }
+        }
+        return selected;
+    }
+
+    // strong ETag of an employee version in one of the cached media types: "3", "3-cbor" or "3-smile". Whatever
+    // Spring MVC negotiates for other Accept types only gets the weak W/"3"
+    private static String eTag(long version, MediaType mediaType) {
+        return mediaType != null
+                ? "\"" + version + ETAG_SUFFIXES.get(mediaType) + "\""
+                : "W/\"" + version + "\"";
+    }
+
+    // the body and its ETag depend on Accept, so shared caches must key them on it
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Long version, MediaType mediaType) {
+        builder.varyBy(HttpHeaders.ACCEPT);
+        return version != null ? builder.eTag(eTag(version, mediaType)) : builder;
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    private static boolean eTagListContains(String header, String eTag) {
+        String expected = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match: null when absent or "*", otherwise the single strong ETag the client last saw, in any encoding
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String version = tag.substring(1, tag.length() - 1);
+            for (String suffix : ETAG_SUFFIXES.values()) {
+                if (!suffix.isEmpty() && version.endsWith(suffix)) {
+                    version = version.substring(0, version.length() - suffix.length());
+                }
+            }
+            try {
+                return Long.parseLong(version);
+            } catch (NumberFormatException e) {
+                // fall through: not one of our ETags
+            }
+        }
+        throw new EmployeeVersionMismatchException("If-Match does not name a current version: " + ifMatch);
+    }
 }
@@ -0,0 +1,151 @@
+package com.karthik.springboot.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.karthik.springboot.config.CacheConfig;
+import com.karthik.springboot.model.Employee;
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+// GET /api/employees/{id} bodies kept already encoded, per id and media type, so a hit is written out without
+// running Jackson. Entries are encoded from the employee in the data cache with the same mappers the message
+// converters use, and are evicted alongside it whenever the service evicts it
+@Component
+public class EmployeeResponseCache {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final Cache employees;
+
+    private final Cache responses;
+
+    // in converter order, so Accept: */* gets JSON as it would without this cache
+    private final Map<MediaType, ObjectWriter> writers = new LinkedHashMap<>();
+
+    public EmployeeResponseCache(CacheManager cacheManager, MappingJackson2HttpMessageConverter jsonConverter,
+                                 MappingJackson2CborHttpMessageConverter cborConverter,
+                                 MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.employees = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        this.responses = cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE);
+        writers.put(MediaType.APPLICATION_JSON, jsonConverter.getObjectMapper().writerFor(Employee.class));
+        writers.put(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper().writerFor(Employee.class));
+        writers.put(APPLICATION_SMILE, smileConverter.getObjectMapper().writerFor(Employee.class));
+    }
+
+    // the cached media type the Accept header prefers, or null to leave negotiation (and any 406) to Spring MVC
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType candidate : acceptable) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType mediaType : writers.keySet()) {
+                if (candidate.isCompatibleWith(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        return null;
+    }
+
+    // mediaType must come from negotiate; loader is the data-cache lookup, called only on a miss here
+    public Optional<EncodedEmployee> get(long id, MediaType mediaType, LongFunction<Optional<Employee>> loader) {
+        Entry entry = responses.get(id, Entry.class);
+        if (entry != null && entry.bodies.containsKey(mediaType)) {
+            return Optional.of(new EncodedEmployee(entry.bodies.get(mediaType), entry.source.getVersion()));
+        }
+        Optional<Employee> loaded = loader.apply(id);
+        if (loaded.isEmpty()) {
+            return Optional.empty();
+        }
+        Employee employee = loaded.get();
+        byte[] body = encode(employee, mediaType);
+        Entry updated = entry != null && entry.source == employee ? entry.with(mediaType, body) : new Entry(employee, mediaType, body);
+        responses.put(id, updated);
+        // an update evicts the employee before its bytes, so if the encoded instance has left the data cache by now,
+        // that update may have evicted the bytes before this put; drop them rather than serve the old version
+        if (employees.get(id, Object.class) != employee) {
+            responses.evict(id);
+        }
+        return Optional.of(new EncodedEmployee(body, employee.getVersion()));
+    }
+
+    // the version of the body cached here for mediaType, else of the employee in the data cache, empty if neither
+    // holds it; both are evicted when it changes, so a cached version is as current as a cached body. mediaType is
+    // the negotiated one, or null for types left to Spring MVC, which only the data cache can answer for
+    public Optional<Long> cachedVersion(long id, MediaType mediaType) {
+        Entry entry = mediaType != null ? responses.get(id, Entry.class) : null;
+        if (entry != null && entry.bodies.containsKey(mediaType)) {
+            return Optional.ofNullable(entry.source.getVersion());
+        }
+        Object cached = employees.get(id, Object.class);
+        return cached instanceof Employee ? Optional.ofNullable(((Employee) cached).getVersion()) : Optional.empty();
+    }
+
+    private byte[] encode(Employee employee, MediaType mediaType) {
+        try {
+            return writers.get(mediaType).writeValueAsBytes(employee);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write employee " + employee.getId(), e);
+        }
+    }
+
+    @Getter
+    public static final class EncodedEmployee {
+
+        private final byte[] body;
+
+        private final Long version;
+
+        EncodedEmployee(byte[] body, Long version) {
+            this.body = body;
+            this.version = version;
+        }
+    }
+
+    // the bodies encoded so far from one cached instance; replaced, never changed, once it is in the cache
+    private static final class Entry {
+
+        private final Employee source;
+
+        private final Map<MediaType, byte[]> bodies;
+
+        private Entry(Employee source, MediaType mediaType, byte[] body) {
+            this(source, Map.of(mediaType, body));
+        }
+
+        private Entry(Employee source, Map<MediaType, byte[]> bodies) {
+            this.source = source;
+            this.bodies = bodies;
+        }
+
+        private Entry with(MediaType mediaType, byte[] body) {
+            Map<MediaType, byte[]> bodies = new LinkedHashMap<>(this.bodies);
+            bodies.put(mediaType, body);
+            return new Entry(source, bodies);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.karthik.springboot.controller;
+
+import com.karthik.springboot.exception.ConcurrencyLimitExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// load shed further in than the request filter: the same 503 and Retry-After the filter sends
+@RestControllerAdvice
+public class OverloadExceptionHandler {
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public void handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException e, HttpServletResponse response) throws IOException{
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+    }
+}
@@ -0,0 +1,34 @@
+package com.karthik.springboot.dto;
+
+import com.karthik.springboot.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// outcome of one row of a bulk create, reported by its position in the request
+@Getter
+@AllArgsConstructor
+public class BulkCreateResult {
+
+    public enum Status {
+        CREATED,
+        CONFLICT
+    }
+
+    private int index;
+
+    private String email;
+
+    private Status status;
+
+    private Long id;
+
+    private String message;
+
+    public static BulkCreateResult created(int index, Employee employee) {
+        return new BulkCreateResult(index, employee.getEmail(), Status.CREATED, employee.getId(), null);
+    }
+
+    public static BulkCreateResult conflict(int index, String email, String message) {
+        return new BulkCreateResult(index, email, Status.CONFLICT, null, message);
+    }
+}
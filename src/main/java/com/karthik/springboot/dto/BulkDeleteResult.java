@@ -0,0 +1,14 @@
+package com.karthik.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// requested counts distinct ids; ids that did not exist are the difference to deleted
+@Getter
+@AllArgsConstructor
+public class BulkDeleteResult {
+
+    private int requested;
+
+    private int deleted;
+}
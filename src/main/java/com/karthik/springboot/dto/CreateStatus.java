@@ -0,0 +1,43 @@
+package com.karthik.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// where a queued (write-behind) create stands, looked up by the ticket handed out when it was accepted
+@Getter
+@AllArgsConstructor
+public class CreateStatus {
+
+    public enum Status {
+        PENDING,
+        CREATED,
+        CONFLICT,
+        FAILED
+    }
+
+    private String ticket;
+
+    private String email;
+
+    private Status status;
+
+    private Long id;
+
+    private String message;
+
+    public static CreateStatus pending(String ticket, String email) {
+        return new CreateStatus(ticket, email, Status.PENDING, null, null);
+    }
+
+    public static CreateStatus created(String ticket, String email, long id) {
+        return new CreateStatus(ticket, email, Status.CREATED, id, null);
+    }
+
+    public static CreateStatus conflict(String ticket, String email, String message) {
+        return new CreateStatus(ticket, email, Status.CONFLICT, null, message);
+    }
+
+    public static CreateStatus failed(String ticket, String email, String message) {
+        return new CreateStatus(ticket, email, Status.FAILED, null, message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.karthik.springboot.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// answered with 503 and Retry-After by OverloadExceptionHandler
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException{
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String message, Duration retryAfter){
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,16 @@
+package com.karthik.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ConnectionLimitExceededException extends RuntimeException{
+
+    public ConnectionLimitExceededException(String message){
+        super(message);
+    }
+
+    public ConnectionLimitExceededException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.karthik.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CreateQueueFullException extends RuntimeException{
+
+    public CreateQueueFullException(String message){
+        super(message);
+    }
+}
@@ -1,29 +1,60 @@
 package com.karthik.springboot.repository;
 
 import com.karthik.springboot.model.Employee;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+import static org.hibernate.annotations.QueryHints.NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
     Optional<Employee> findByEmail(String email);
 
+    // answers conditional requests without loading the entity
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    // which of the given emails are already taken, in one round trip
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // keyset page: seeks past the last seen id instead of using OFFSET, so every page costs the same
+    Slice<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
     // writing custom query by using JPQL with index params
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQL(String firstName, String lastName);
 
     // writing custom query by using JPQL with named params
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
     // writing custom query by using Native SQL with index params
+    // native SQL is opaque to Hibernate, so the table it reads is declared for query-cache invalidation
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = NATIVE_SPACES, value = "employees")
+    })
     @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2", nativeQuery = true)
     Employee findByNativeSQL(String firstName, String lastName);
 
     // writing custom query by using Native SQL with named params
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = NATIVE_SPACES, value = "employees")
+    })
     @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName",
             nativeQuery = true)
     Employee findByNativeSQLNamed(@Param("firstName") String firstName, @Param("lastName") String lastName);
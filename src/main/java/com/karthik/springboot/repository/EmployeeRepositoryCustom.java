@@ -0,0 +1,43 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// persistence-context operations that Spring Data does not derive, implemented in EmployeeRepositoryImpl
+public interface EmployeeRepositoryCustom {
+
+    Set<String> PROJECTABLE_FIELDS = Set.of("id", "firstName", "lastName", "email", "version");
+
+    void detach(Employee employee);
+
+    void flushAndClear();
+
+    // cursor over the whole table for exports; must be consumed inside a transaction and closed. The rows
+    // bypass the second-level cache, so an export does not evict the hot set
+    Stream<Employee> streamAll();
+
+    // single UPDATE of the non-null fields of changes, bumping the version; when expectedVersion is
+    // not null only that version is updated. Only this employee is evicted from the second-level cache.
+    // Returns the version the row is at afterwards, read by the UPDATE itself on MySQL and H2, or empty
+    // when no row matched
+    Optional<Long> updateFields(long id, Employee changes, Long expectedVersion);
+
+    // single DELETE without loading the entity first, evicting only the deleted ids from the second-level
+    // cache; returns the affected-row count
+    int deleteEmployeeById(long id);
+
+    int deleteByIdIn(Collection<Long> ids);
+
+    // projections select only the requested columns (id always included) and return plain maps,
+    // so no managed entities or dirty-checking snapshots are created
+    Slice<Map<String, Object>> findFieldsAfter(long afterId, int limit, List<String> fields);
+
+    Optional<Map<String, Object>> findFieldsById(long id, List<String> fields);
+}
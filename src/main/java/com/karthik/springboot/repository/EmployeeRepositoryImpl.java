@@ -0,0 +1,295 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void detach(Employee employee) {
+        entityManager.detach(employee);
+    }
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        // rows are loaded as the stream is read, after Hibernate has already reset a per-query cache mode,
+        // so the mode is set on the session, which an export transaction uses for nothing else
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        return entityManager.createQuery("select e from Employee e order by e.id", Employee.class)
+                .setHint(HINT_FETCH_SIZE, 1000)
+                .setHint(HINT_READONLY, true)
+                .setHint(HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Long> updateFields(long id, Employee changes, Long expectedVersion) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        if (changes.getFirstName() == null && changes.getLastName() == null && changes.getEmail() == null) {
+            // nothing to write, but the caller still needs to know whether the row matches
+            CriteriaQuery<Long> version = criteriaBuilder.createQuery(Long.class);
+            Root<Employee> employee = version.from(Employee.class);
+            version.select(employee.get("version"))
+                    .where(matches(criteriaBuilder, employee, id, expectedVersion));
+            return entityManager.createQuery(version).getResultStream().findFirst();
+        }
+        Dialect dialect = entityManager.unwrap(SessionImplementor.class).getJdbcServices().getDialect();
+
+        StringBuilder sql = new StringBuilder("update employees set ");
+        List<Object> parameters = new ArrayList<>();
+        if (changes.getFirstName() != null) {
+            sql.append("first_name = ?, ");
+            parameters.add(changes.getFirstName());
+        }
+        if (changes.getLastName() != null) {
+            sql.append("last_name = ?, ");
+            parameters.add(changes.getLastName());
+        }
+        if (changes.getEmail() != null) {
+            sql.append("email = ?, ");
+            parameters.add(changes.getEmail());
+        }
+        // MySQL reports LAST_INSERT_ID(expr) in the UPDATE's own reply, where the driver returns it as the generated key
+        sql.append(dialect instanceof MySQLDialect ? "version = last_insert_id(version + 1)" : "version = version + 1");
+        sql.append(" where id = ?");
+        parameters.add(id);
+        if (expectedVersion != null) {
+            sql.append(" and version = ?");
+            parameters.add(expectedVersion);
+        }
+        return executeWrite(List.of(id), connection -> Optional.ofNullable(
+                updateReturningVersion(connection, dialect, sql.toString(), parameters, id)));
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployeeById(long id) {
+        return executeUpdate("delete from employees where id = ?", List.of(id), List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+        return executeUpdate("delete from employees where id in (" + placeholders + ")", new ArrayList<>(ids), ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> findFieldsAfter(long afterId, int limit, List<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(employee, fields))
+                .where(criteriaBuilder.greaterThan(employee.get("id"), afterId))
+                .orderBy(criteriaBuilder.asc(employee.get("id")));
+
+        // one extra row tells whether there is a next page, as Spring Data does for Slice
+        List<Map<String, Object>> rows = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList()
+                .stream()
+                .map(EmployeeRepositoryImpl::toMap)
+                .collect(Collectors.toList());
+        boolean hasNext = rows.size() > limit;
+        return new SliceImpl<>(hasNext ? rows.subList(0, limit) : rows, PageRequest.of(0, limit), hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsById(long id, List<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(employee, fields))
+                .where(criteriaBuilder.equal(employee.get("id"), id));
+
+        return entityManager.createQuery(query)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .map(EmployeeRepositoryImpl::toMap);
+    }
+
+    // the version the UPDATE wrote, or null when it matched no row, returned by the statement itself as a generated
+    // key where the database can: MySQL sends LAST_INSERT_ID in the UPDATE's reply, and H2 returns the named
+    // columns of updated rows. Anywhere else it is selected back on the same connection
+    private static Long updateReturningVersion(Connection connection, Dialect dialect, String sql,
+                                               List<Object> parameters, long id) throws SQLException {
+        if (dialect instanceof MySQLDialect || dialect instanceof H2Dialect) {
+            try (PreparedStatement statement = dialect instanceof MySQLDialect
+                    ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : connection.prepareStatement(sql, new String[]{"version"})) {
+                bind(statement, parameters);
+                if (statement.executeUpdate() == 0) {
+                    return null;
+                }
+                try (ResultSet versions = statement.getGeneratedKeys()) {
+                    return versions.next() ? versions.getLong(1) : null;
+                }
+            }
+        }
+        try (PreparedStatement statement = prepare(connection, sql, parameters)) {
+            if (statement.executeUpdate() == 0) {
+                return null;
+            }
+        }
+        try (PreparedStatement statement = prepare(connection, "select version from employees where id = ?", List.of(id));
+             ResultSet versions = statement.executeQuery()) {
+            return versions.next() ? versions.getLong(1) : null;
+        }
+    }
+
+    // runs a write as plain JDBC in the current transaction. A JPQL or native bulk statement would make Hibernate
+    // clear the whole Employee second-level region; this locks and evicts only the rows in ids, as Hibernate does
+    // for an entity delete, and invalidates cached queries over the table when the transaction completes
+    private int executeUpdate(String sql, List<Object> parameters, Collection<Long> ids) {
+        return executeWrite(ids, connection -> {
+            try (PreparedStatement statement = prepare(connection, sql, parameters)) {
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    private <T> T executeWrite(Collection<Long> ids, ReturningWork<T> work) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        // pending inserts and updates go first, as they would before a bulk statement
+        session.flush();
+        SessionFactoryImplementor sessionFactory = session.getFactory();
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(Employee.class);
+        Serializable[] querySpaces = persister.getQuerySpaces();
+        boolean queryCacheEnabled = sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled();
+        TimestampsCache timestamps = sessionFactory.getCache().getTimestampsCache();
+
+        EntityDataAccess cacheAccess = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        Map<Object, SoftLock> locks = new LinkedHashMap<>();
+        if (cacheAccess != null) {
+            for (Long id : ids) {
+                Object key = cacheAccess.generateCacheKey(id, persister, sessionFactory, session.getTenantIdentifier());
+                locks.put(key, cacheAccess.lockItem(session, key, null));
+            }
+        }
+        if (queryCacheEnabled) {
+            timestamps.preInvalidate(querySpaces, session);
+        }
+        // registered before the statement runs, so a failed write still releases its locks
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            locks.forEach((key, lock) -> cacheAccess.unlockItem(completedSession, key, lock));
+            if (queryCacheEnabled) {
+                timestamps.invalidate(querySpaces, completedSession);
+            }
+        });
+
+        T result = session.doReturningWork(work);
+        locks.keySet().forEach(key -> cacheAccess.remove(session, key));
+        return result;
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, List<Object> parameters)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            bind(statement, parameters);
+            return statement;
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> parameters) throws SQLException {
+        for (int index = 0; index < parameters.size(); index++) {
+            statement.setObject(index + 1, parameters.get(index));
+        }
+    }
+
+    private static List<Selection<?>> selections(Root<Employee> employee, List<String> fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        selected.addAll(fields);
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (String field : selected) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown employee field: " + field);
+            }
+            selections.add(employee.get(field).alias(field));
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+    }
+
+    private static Predicate[] matches(CriteriaBuilder criteriaBuilder, Root<Employee> employee,
+                                       long id, Long expectedVersion) {
+        Predicate idMatches = criteriaBuilder.equal(employee.get("id"), id);
+        if (expectedVersion == null) {
+            return new Predicate[]{idMatches};
+        }
+        return new Predicate[]{idMatches, criteriaBuilder.equal(employee.get("version"), expectedVersion)};
+    }
+}
@@ -0,0 +1,291 @@
+package com.karthik.springboot.search;
+
+import com.karthik.springboot.model.Employee;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+// in-memory type-ahead index over "firstName lastName" and email. Matches are ranked in tiers: the whole field,
+// a prefix of the field, a prefix of a word, anywhere (three or more characters only). Each tier has its own
+// keys, and every posting set is kept in result order, so a search reads each tier only until it has its top k.
+// Writers are serialized; readers never block and re-check each candidate against its current entry
+public class EmployeeSearchIndex {
+
+    static final int GRAM = 3;
+
+    private static final int WHOLE_FIELD = 4;
+
+    private static final int FIELD_PREFIX = 3;
+
+    private static final int WORD_PREFIX = 2;
+
+    private static final int ANYWHERE = 1;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // within a tier: shorter names first, then by name, then oldest
+    private static final Comparator<Entry> RESULT_ORDER = Comparator.comparingInt((Entry entry) -> entry.name.length())
+            .thenComparing(entry -> entry.name)
+            .thenComparingLong(entry -> entry.id);
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+
+    public synchronized void put(Employee employee) {
+        Entry entry = new Entry(employee);
+        Entry previous = entries.put(entry.id, entry);
+        if (previous != null) {
+            unpost(previous);
+        }
+        for (String key : entry.keys()) {
+            postings.computeIfAbsent(key, k -> new Posting()).add(entry);
+        }
+    }
+
+    // partial update: fields that are null in changes keep their indexed value
+    public synchronized void merge(long id, Employee changes) {
+        Entry current = entries.get(id);
+        if (current == null) {
+            return;
+        }
+        put(Employee.builder()
+                .id(id)
+                .firstName(changes.getFirstName() != null ? changes.getFirstName() : current.firstName)
+                .lastName(changes.getLastName() != null ? changes.getLastName() : current.lastName)
+                .email(changes.getEmail() != null ? changes.getEmail() : current.email)
+                .version(current.version != null ? current.version + 1 : null)
+                .build());
+    }
+
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unpost(previous);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<Employee> search(String query, int limit) {
+        String q = normalize(query);
+        List<Employee> employees = new ArrayList<>();
+        if (q.isEmpty() || limit <= 0) {
+            return employees;
+        }
+        Set<Long> taken = new HashSet<>();
+        for (int tier = WHOLE_FIELD; tier >= ANYWHERE; tier--) {
+            Posting candidates = candidates(q, tier);
+            if (candidates == null) {
+                continue;
+            }
+            for (Entry candidate : candidates.entries) {
+                Entry current = entries.get(candidate.id);
+                if (current != null && current.score(q) == tier && taken.add(current.id)) {
+                    employees.add(current.toEmployee());
+                    if (employees.size() == limit) {
+                        return employees;
+                    }
+                }
+            }
+        }
+        return employees;
+    }
+
+    // the smallest posting set that holds every entry of the tier, or null when the tier cannot match
+    private Posting candidates(String q, int tier) {
+        Posting smallest;
+        switch (tier) {
+            case WHOLE_FIELD:
+                return postings.get(wholeFieldKey(q));
+            case FIELD_PREFIX:
+                smallest = postings.get(fieldPrefixKey(q));
+                break;
+            case WORD_PREFIX:
+                String word = leadingWord(q);
+                smallest = word.isEmpty() ? null : postings.get(wordPrefixKey(word));
+                break;
+            default:
+                if (q.length() < GRAM) {
+                    return null;
+                }
+                smallest = postings.get(q.substring(0, GRAM));
+        }
+        if (smallest == null) {
+            return null;
+        }
+        // every match of any tier contains all of the query's trigrams
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Posting gram = postings.get(q.substring(i, i + GRAM));
+            if (gram == null) {
+                return null;
+            }
+            if (gram.size < smallest.size) {
+                smallest = gram;
+            }
+        }
+        return smallest;
+    }
+
+    private void unpost(Entry entry) {
+        for (String key : entry.keys()) {
+            Posting posting = postings.get(key);
+            if (posting != null && posting.remove(entry) && posting.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '@' || c == '.' || c == '_' || c == '+' || c == '-';
+    }
+
+    private static String leadingWord(String text) {
+        int end = 0;
+        while (end < text.length() && !isSeparator(text.charAt(end))) {
+            end++;
+        }
+        return text.substring(0, end);
+    }
+
+    // key prefixes keep the four kinds of key apart; trigrams are stored as they are
+    private static String wholeFieldKey(String field) {
+        return "=" + field;
+    }
+
+    private static String fieldPrefixKey(String text) {
+        return "^^" + text.substring(0, Math.min(GRAM, text.length()));
+    }
+
+    private static String wordPrefixKey(String word) {
+        return "^" + word.substring(0, Math.min(GRAM, word.length()));
+    }
+
+    // entries of one key in result order; size is kept by the (serialized) writers, as the set's own size() is a scan
+    private static final class Posting {
+
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(RESULT_ORDER);
+
+        private volatile int size;
+
+        private void add(Entry entry) {
+            if (entries.add(entry)) {
+                size++;
+            }
+        }
+
+        private boolean remove(Entry entry) {
+            if (entries.remove(entry)) {
+                size--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+
+        private final long id;
+
+        private final String firstName;
+
+        private final String lastName;
+
+        private final String email;
+
+        private final Long version;
+
+        // normalized "first last" and email, the two searchable fields
+        private final String name;
+
+        private final String mail;
+
+        private Entry(Employee employee) {
+            this.id = employee.getId();
+            this.firstName = employee.getFirstName();
+            this.lastName = employee.getLastName();
+            this.email = employee.getEmail();
+            this.version = employee.getVersion();
+            this.name = normalize(firstName + " " + lastName);
+            this.mail = normalize(email);
+        }
+
+        private Set<String> keys() {
+            Set<String> keys = new HashSet<>();
+            for (String field : List.of(name, mail)) {
+                keys.add(wholeFieldKey(field));
+                for (int length = 1; length <= GRAM && length <= field.length(); length++) {
+                    keys.add(fieldPrefixKey(field.substring(0, length)));
+                }
+                for (int start = 0; start < field.length(); start++) {
+                    if (startsWord(field, start)) {
+                        String word = leadingWord(field.substring(start));
+                        for (int length = 1; length <= GRAM && length <= word.length(); length++) {
+                            keys.add(wordPrefixKey(word.substring(0, length)));
+                        }
+                    }
+                }
+                for (int i = 0; i + GRAM <= field.length(); i++) {
+                    keys.add(field.substring(i, i + GRAM));
+                }
+            }
+            return keys;
+        }
+
+        private int score(String q) {
+            if (name.equals(q) || mail.equals(q)) {
+                return WHOLE_FIELD;
+            }
+            if (name.startsWith(q) || mail.startsWith(q)) {
+                return FIELD_PREFIX;
+            }
+            if (containsAtWordStart(name, q) || containsAtWordStart(mail, q)) {
+                return WORD_PREFIX;
+            }
+            return q.length() >= GRAM && (name.contains(q) || mail.contains(q)) ? ANYWHERE : 0;
+        }
+
+        private static boolean containsAtWordStart(String field, String q) {
+            for (int from = field.indexOf(q); from >= 0; from = field.indexOf(q, from + 1)) {
+                if (startsWord(field, from)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // a word is a run of non-separators
+        private static boolean startsWord(String field, int index) {
+            return !isSeparator(field.charAt(index)) && (index == 0 || isSeparator(field.charAt(index - 1)));
+        }
+
+        private Employee toEmployee() {
+            return Employee.builder()
+                    .id(id)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(email)
+                    .version(version)
+                    .build();
+        }
+    }
+}
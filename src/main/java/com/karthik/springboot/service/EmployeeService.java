@@ -1,18 +1,48 @@
 package com.karthik.springboot.service;
 
+import com.karthik.springboot.dto.BulkCreateResult;
 import com.karthik.springboot.model.Employee;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
+
+    List<BulkCreateResult> saveAll(List<Employee> employees);
 	
     List<Employee> getAllEmployees();
+
+    Slice<Employee> getEmployees(long afterId, int limit);
+
+    Slice<Map<String, Object>> getEmployeeFields(long afterId, int limit, List<String> fields);
+
+    void exportEmployees(Consumer<Employee> consumer);
 	
     Optional<Employee> getEmployeeById(long id);
+
+    // found employees in the order of ids, each once; ids that do not exist are left out
+    List<Employee> getEmployeesByIds(List<Long> ids);
+
+    Optional<Employee> getEmployeeByEmail(String email);
+
+    Optional<Map<String, Object>> getEmployeeFieldsById(long id, List<String> fields);
+
+    Optional<Long> getEmployeeVersion(long id);
 	
     Employee updateEmployee(Employee updatedEmployee);
+
+    Optional<Employee> updateEmployee(long id, Employee employee, Long expectedVersion);
+
+    boolean patchEmployee(long id, Employee changes, Long expectedVersion);
 	
-    void deleteEmployee(long id);
+    boolean deleteEmployee(long id);
+
+    int deleteEmployees(List<Long> ids);
+
+    // ranked type-ahead matches on name and email, served from the in-memory search index
+    List<Employee> searchEmployees(String query, int limit);
 }
@@ -0,0 +1,120 @@
+package com.karthik.springboot.service.impl;
+
+import com.karthik.springboot.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// DataLoader-style batching: getEmployeeById calls for different ids that arrive within the window are answered
+// by one IN-list query. The first caller of a batch waits out the window and runs the query for everyone; a caller
+// that fills the batch to maxBatchSize runs it straight away. The query runs on a caller's thread outside any
+// transaction, so, like any repository call outside one, it takes its own connection-limiter permit for just the
+// query; the callers waiting on the batch hold none
+@Slf4j
+public class EmployeeBatchLoader {
+
+    private final boolean enabled;
+
+    private final Function<List<Long>, List<Employee>> loader;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    // a lock rather than synchronized so waiting virtual threads do not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition batchSent = lock.newCondition();
+
+    // the batch still taking ids, or null; guarded by lock
+    private Map<Long, CompletableFuture<Optional<Employee>>> open;
+
+    public EmployeeBatchLoader(boolean enabled, Function<List<Long>, List<Employee>> loader,
+                               Duration window, int maxBatchSize) {
+        this.enabled = enabled;
+        this.loader = loader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Employee> load(long id) {
+        CompletableFuture<Optional<Employee>> result;
+        Map<Long, CompletableFuture<Optional<Employee>>> toSend = null;
+        lock.lock();
+        try {
+            boolean leader = open == null;
+            if (leader) {
+                open = new LinkedHashMap<>();
+            }
+            Map<Long, CompletableFuture<Optional<Employee>>> batch = open;
+            result = batch.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (batch.size() >= maxBatchSize) {
+                toSend = close(batch);
+            } else if (leader) {
+                long remaining = windowNanos;
+                while (remaining > 0 && open == batch) {
+                    try {
+                        remaining = batchSent.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        // cut the window short rather than strand the callers that joined it
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                if (open == batch) {
+                    toSend = close(batch);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (toSend != null) {
+            send(toSend);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // called with the lock held; the next caller starts a new batch
+    private Map<Long, CompletableFuture<Optional<Employee>>> close(Map<Long, CompletableFuture<Optional<Employee>>> batch) {
+        open = null;
+        batchSent.signalAll();
+        return batch;
+    }
+
+    // every caller in the batch gets its row, empty when the id does not exist, or the query's failure
+    private void send(Map<Long, CompletableFuture<Optional<Employee>>> batch) {
+        try {
+            Map<Long, Employee> found = new HashMap<>();
+            for (Employee employee : loader.apply(new ArrayList<>(batch.keySet()))) {
+                found.put(employee.getId(), employee);
+            }
+            batch.forEach((id, result) -> result.complete(Optional.ofNullable(found.get(id))));
+            log.debug("Loaded {} employees in one batch", batch.size());
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(result -> result.completeExceptionally(e));
+            throw e;
+        }
+    }
+}
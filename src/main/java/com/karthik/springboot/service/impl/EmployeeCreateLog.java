@@ -0,0 +1,188 @@
+package com.karthik.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.karthik.springboot.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// append-only log behind the create queue: a create is on disk before it is acknowledged and is marked done once its
+// transaction has committed. Syncs are grouped, so a caller whose record an earlier force() already covered does not
+// force again. The file is emptied whenever nothing in it is outstanding
+@Slf4j
+class EmployeeCreateLog implements Closeable {
+
+    private static final String CREATE = "C";
+
+    private static final String DONE = "D";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    // locks rather than synchronized so virtual threads waiting on an fsync do not pin their carrier
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // bytes ever appended, and how many of them are known to be on disk; counted rather than read from the file
+    // position, so emptying the file does not move them back
+    private long written;
+
+    private long synced;
+
+    // creates in the file without a done record; guarded by appendLock
+    private int outstanding;
+
+    EmployeeCreateLog(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    // creates that an earlier run acknowledged but never marked done, in the order they were accepted
+    Map<String, Employee> replay() throws IOException {
+        Map<String, Employee> open = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length == 3 && parts[0].equals(CREATE)) {
+                try {
+                    open.put(parts[1], JSON.readValue(parts[2], Employee.class));
+                } catch (JsonProcessingException e) {
+                    // only the last line can be torn, and its create was never acknowledged
+                    log.warn("Skipping unreadable create log line for ticket {}", parts[1]);
+                }
+            } else if (parts.length == 2 && parts[0].equals(DONE)) {
+                open.remove(parts[1]);
+            }
+        }
+        appendLock.lock();
+        try {
+            outstanding = open.size();
+            if (outstanding == 0) {
+                empty();
+            } else if (!endsWithNewline()) {
+                // start the next record on a line of its own
+                write("\n");
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return open;
+    }
+
+    // returns the mark to pass to sync
+    long appendCreate(String ticket, Employee employee) {
+        String record;
+        try {
+            record = CREATE + "\t" + ticket + "\t" + JSON.writeValueAsString(employee) + "\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Employee cannot be written to the create log", e);
+        }
+        appendLock.lock();
+        try {
+            long mark = write(record);
+            outstanding++;
+            return mark;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long appendDone(Collection<String> tickets) {
+        StringBuilder records = new StringBuilder();
+        for (String ticket : tickets) {
+            records.append(DONE).append('\t').append(ticket).append('\n');
+        }
+        appendLock.lock();
+        try {
+            long mark = write(records.toString());
+            outstanding -= tickets.size();
+            if (outstanding == 0) {
+                empty();
+            }
+            return mark;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // returns once everything appended up to mark is on disk
+    void sync(long mark) {
+        syncLock.lock();
+        try {
+            if (synced >= mark) {
+                return;
+            }
+            long target;
+            appendLock.lock();
+            try {
+                target = written;
+            } finally {
+                appendLock.unlock();
+            }
+            channel.force(false);
+            synced = target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // called with appendLock held
+    private long write(String record) {
+        ByteBuffer bytes = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (bytes.hasRemaining()) {
+                written += channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return written;
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return true;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    // called with appendLock held
+    private void empty() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.karthik.springboot.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.dto.CreateStatus;
+import com.karthik.springboot.exception.CreateQueueFullException;
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// write-behind for POST /api/employees: a create is logged, fsynced and queued, and the caller gets a ticket
+// straight away. One writer thread inserts queued creates with saveAll, in transactions of up to batchSize rows,
+// waiting at most maxDelay for a batch to fill. Creates still in the log when the application stops are written
+// on the next start. Disabled, nothing is opened or started and the controller saves synchronously
+@Slf4j
+public class EmployeeCreateQueue implements AutoCloseable {
+
+    private final boolean enabled;
+
+    private final EmployeeService employeeService;
+
+    private final Path logFile;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long maxDelayNanos;
+
+    private final Duration retryDelay;
+
+    private final BlockingQueue<PendingCreate> queue = new LinkedBlockingQueue<>();
+
+    // accepted and not yet written, including creates replayed from the log
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Map<String, CreateStatus> pendingStatuses = new ConcurrentHashMap<>();
+
+    private final Cache<String, CreateStatus> finishedStatuses;
+
+    private EmployeeCreateLog createLog;
+
+    private Thread writer;
+
+    private volatile boolean closed;
+
+    public EmployeeCreateQueue(boolean enabled, EmployeeService employeeService, Path logFile, int capacity,
+                               int batchSize, Duration maxDelay, Duration retryDelay, Duration statusTtl) {
+        this.enabled = enabled;
+        this.employeeService = employeeService;
+        this.logFile = logFile;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.retryDelay = retryDelay;
+        this.finishedStatuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        createLog = new EmployeeCreateLog(logFile);
+        Map<String, Employee> replayed = createLog.replay();
+        replayed.forEach((ticket, employee) -> enqueue(new PendingCreate(ticket, employee, true)));
+        if (!replayed.isEmpty()) {
+            log.info("Replaying {} queued creates from {}", replayed.size(), logFile);
+        }
+        writer = new Thread(this::writeQueued, "employee-create-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // the create is on disk when this returns; the row is inserted later
+    public CreateStatus submit(Employee employee) {
+        if (closed) {
+            throw new CreateQueueFullException("Create queue is shutting down");
+        }
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            throw new CreateQueueFullException("Create queue is full (" + capacity + " pending)");
+        }
+        PendingCreate create = new PendingCreate(UUID.randomUUID().toString(), employee, false);
+        try {
+            createLog.sync(createLog.appendCreate(create.ticket, create.toEmployee()));
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        return enqueue(create);
+    }
+
+    public Optional<CreateStatus> getStatus(String ticket) {
+        CreateStatus status = pendingStatuses.get(ticket);
+        return status != null ? Optional.of(status) : Optional.ofNullable(finishedStatuses.getIfPresent(ticket));
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // stops taking creates and gives the writer up to timeout to drain the queue; what is left stays in the log
+    public void close(Duration timeout) throws InterruptedException, IOException {
+        closed = true;
+        if (writer != null) {
+            writer.join(timeout.toMillis());
+            writer.interrupt();
+            writer.join();
+        }
+        if (createLog != null) {
+            createLog.close();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException, IOException {
+        close(Duration.ofSeconds(10));
+    }
+
+    private CreateStatus enqueue(PendingCreate create) {
+        CreateStatus status = CreateStatus.pending(create.ticket, create.email);
+        pendingStatuses.put(create.ticket, status);
+        queue.add(create);
+        return status;
+    }
+
+    private void writeQueued() {
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, batchSize - batch.size());
+                while (batch.size() < batchSize) {
+                    PendingCreate next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            log.info("Create writer stopped with {} creates left in {}", pending.get(), logFile);
+        }
+    }
+
+    // retries while the database is unavailable, so a create is only ever dropped by a restart, which replays it
+    private void write(List<PendingCreate> batch) throws InterruptedException {
+        while (true) {
+            try {
+                List<BulkCreateResult> results = employeeService.saveAll(batch.stream()
+                        .map(PendingCreate::toEmployee)
+                        .collect(Collectors.toList()));
+                List<CreateStatus> statuses = new ArrayList<>(batch.size());
+                for (int index = 0; index < batch.size(); index++) {
+                    statuses.add(status(batch.get(index), results.get(index)));
+                }
+                finish(batch, statuses);
+                return;
+            } catch (EmailAlreadyExistsException e) {
+                // an email was taken by another insert after saveAll's check; retried alone, that row is a conflict
+                if (batch.size() > 1) {
+                    writeEach(batch);
+                } else {
+                    finish(batch, List.of(status(batch.get(0),
+                            BulkCreateResult.conflict(0, batch.get(0).email, e.getMessage()))));
+                }
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() > 1) {
+                    writeEach(batch);
+                } else {
+                    finish(batch, List.of(CreateStatus.failed(batch.get(0).ticket, batch.get(0).email,
+                            e.getMostSpecificCause().getMessage())));
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (closed) {
+                    throw new InterruptedException("Shutting down with the database unavailable");
+                }
+                log.warn("Writing {} queued creates failed, retrying in {}", batch.size(), retryDelay, e);
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+    }
+
+    // one bad row should not hold up the others in its transaction
+    private void writeEach(List<PendingCreate> batch) throws InterruptedException {
+        for (PendingCreate create : batch) {
+            write(List.of(create));
+        }
+    }
+
+    private CreateStatus status(PendingCreate create, BulkCreateResult result) {
+        if (result.getStatus() == BulkCreateResult.Status.CREATED) {
+            return CreateStatus.created(create.ticket, create.email, result.getId());
+        }
+        if (create.replayed) {
+            // the previous run may have committed this row and stopped before logging it as done
+            Optional<Employee> existing = employeeService.getEmployeeByEmail(create.email);
+            if (existing.isPresent() && create.isSameAs(existing.get())) {
+                return CreateStatus.created(create.ticket, create.email, existing.get().getId());
+            }
+        }
+        return CreateStatus.conflict(create.ticket, create.email, result.getMessage());
+    }
+
+    private void finish(List<PendingCreate> batch, List<CreateStatus> statuses) {
+        createLog.sync(createLog.appendDone(batch.stream().map(create -> create.ticket).collect(Collectors.toList())));
+        for (CreateStatus status : statuses) {
+            finishedStatuses.put(status.getTicket(), status);
+            pendingStatuses.remove(status.getTicket());
+        }
+        pending.addAndGet(-batch.size());
+    }
+
+    // the fields of a create; each attempt gets a new entity, as a rolled-back insert leaves its id on the old one
+    private static final class PendingCreate {
+
+        private final String ticket;
+
+        private final String firstName;
+
+        private final String lastName;
+
+        private final String email;
+
+        private final boolean replayed;
+
+        private PendingCreate(String ticket, Employee employee, boolean replayed) {
+            this.ticket = ticket;
+            this.firstName = employee.getFirstName();
+            this.lastName = employee.getLastName();
+            this.email = employee.getEmail();
+            this.replayed = replayed;
+        }
+
+        private Employee toEmployee() {
+            return Employee.builder()
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(email)
+                    .build();
+        }
+
+        private boolean isSameAs(Employee employee) {
+            return firstName.equals(employee.getFirstName()) && lastName.equals(employee.getLastName());
+        }
+    }
+}
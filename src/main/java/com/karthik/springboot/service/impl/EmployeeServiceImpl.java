@@ -1,51 +1,330 @@
 package com.karthik.springboot.service.impl;
 
-import com.karthik.springboot.exception.ResourceNotFoundException;
+import com.karthik.springboot.config.CacheConfig;
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
 import com.karthik.springboot.model.Employee;
 import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.search.EmployeeSearchIndex;
 import com.karthik.springboot.service.EmployeeService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // keep in step with spring.jpa.properties.hibernate.jdbc.batch_size
+    static final int FLUSH_BATCH_SIZE = 50;
+
+    static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private EmployeeSearchIndex searchIndex;
+
+    private EmployeeBatchLoader batchLoader;
+
+    private CacheManager cacheManager;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeSearchIndex searchIndex,
+                               EmployeeBatchLoader batchLoader, CacheManager cacheManager) {
         this.employeeRepository = employeeRepository;
+        this.searchIndex = searchIndex;
+        this.batchLoader = batchLoader;
+        this.cacheManager = cacheManager;
     }
 
     @Override
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
+        // the unique index on email does the duplicate check; flush so a violation surfaces here
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException("Employee already exist with given email:" + employee.getEmail(), e);
+            }
+            throw e;
         }
-        return employeeRepository.save(employee);
+        afterCommit(() -> searchIndex.put(savedEmployee));
+        return savedEmployee;
     }
 
+    // the write-behind queue calls this for every batch, so only the new ids (cached as misses) are evicted
+    // rather than the whole cache
     @Override
+    @Transactional
+    public List<BulkCreateResult> saveAll(List<Employee> employees) {
+
+        List<String> emails = employees.stream()
+                .map(Employee::getEmail)
+                .distinct()
+                .collect(Collectors.toList());
+        Set<String> takenEmails = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, emails.size());
+            takenEmails.addAll(employeeRepository.findExistingEmails(emails.subList(from, to)));
+        }
+
+        List<BulkCreateResult> results = new ArrayList<>(employees.size());
+        int inserted = 0;
+        // a concurrent insert can still take an email after findExistingEmails; the unique index catches it here,
+        // and as the transaction is then rolled back the whole request is a conflict, as for saveEmployee
+        try {
+            for (int index = 0; index < employees.size(); index++) {
+                Employee employee = employees.get(index);
+                // add() fails for emails already in the table and for repeats within this request
+                if (!takenEmails.add(employee.getEmail())) {
+                    results.add(BulkCreateResult.conflict(index, employee.getEmail(),
+                            "Employee already exist with given email:" + employee.getEmail()));
+                    continue;
+                }
+                employeeRepository.save(employee);
+                afterCommit(() -> {
+                    searchIndex.put(employee);
+                    evictCachedMiss(employee.getId());
+                });
+                results.add(BulkCreateResult.created(index, employee));
+                if (++inserted % FLUSH_BATCH_SIZE == 0) {
+                    employeeRepository.flushAndClear();
+                }
+            }
+            employeeRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException("Employee already exist with one of the given emails", e);
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<Employee> getEmployees(long afterId, int limit) {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getEmployeeFields(long afterId, int limit, List<String> fields) {
+        return employeeRepository.findFieldsAfter(afterId, limit, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                // detach as we go so the persistence context does not grow with the table
+                employeeRepository.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    // no transaction of its own, so callers waiting on a batch do not hold a connection
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        return batchLoader.isEnabled() ? batchLoader.load(id) : employeeRepository.findById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Employee> getEmployeesByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        Map<Long, Employee> found = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.size());
+            for (Employee employee : employeeRepository.findAllById(distinctIds.subList(from, to))) {
+                found.put(employee.getId(), employee);
+            }
+        }
+        return distinctIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return employeeRepository.findByEmail(email);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getEmployeeFieldsById(long id, List<String> fields) {
+        return employeeRepository.findFieldsById(id, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
     }
 
+    // evict up front so a failed update cannot leave a modified instance in the cache
     @Override
+    @Caching(evict = @CacheEvict(cacheNames = {CacheConfig.EMPLOYEES_CACHE, CacheConfig.EMPLOYEE_RESPONSES_CACHE},
+                    key = "#updatedEmployee.id", beforeInvocation = true),
+            put = @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id"))
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        Employee savedEmployee = employeeRepository.save(updatedEmployee);
+        afterCommit(() -> searchIndex.put(savedEmployee));
+        return savedEmployee;
     }
 
+    // PUT: replaces every column in one UPDATE, no read of the current row. The UPDATE also returns the version it
+    // wrote, so the response carries an ETag for the client's next conditional request
     @Override
-    public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.EMPLOYEES_CACHE, CacheConfig.EMPLOYEE_RESPONSES_CACHE}, key = "#id")
+    public Optional<Employee> updateEmployee(long id, Employee employee, Long expectedVersion) {
+        Optional<Long> version = updateFields(id, employee, expectedVersion);
+        if (version.isEmpty()) {
+            return Optional.empty();
+        }
+        employee.setId(id);
+        employee.setVersion(version.get());
+        afterCommit(() -> searchIndex.put(employee));
+        return Optional.of(employee);
+    }
+
+    // PATCH: writes only the fields present in changes
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.EMPLOYEES_CACHE, CacheConfig.EMPLOYEE_RESPONSES_CACHE}, key = "#id")
+    public boolean patchEmployee(long id, Employee changes, Long expectedVersion) {
+        if (updateFields(id, changes, expectedVersion).isEmpty()) {
+            return false;
+        }
+        afterCommit(() -> searchIndex.merge(id, changes));
+        return true;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.EMPLOYEES_CACHE, CacheConfig.EMPLOYEE_RESPONSES_CACHE}, key = "#id")
+    public boolean deleteEmployee(long id) {
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            return false;
+        }
+        afterCommit(() -> searchIndex.remove(id));
+        return true;
+    }
+
+    // evicts only the listed ids, after commit, rather than clearing both caches for every bulk delete
+    @Override
+    @Transactional
+    public int deleteEmployees(List<Long> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size());
+            deleted += employeeRepository.deleteByIdIn(ids.subList(from, to));
+        }
+        afterCommit(() -> {
+            ids.forEach(searchIndex::remove);
+            evictCached(ids);
+        });
+        return deleted;
+    }
+
+    @Override
+    public List<Employee> searchEmployees(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    // the search index only ever shows committed rows; outside a transaction the write has already committed
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void evictCachedMiss(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    // the employee before its encoded responses, in the order the @CacheEvict annotations list them
+    private void evictCached(List<Long> ids) {
+        for (String cacheName : List.of(CacheConfig.EMPLOYEES_CACHE, CacheConfig.EMPLOYEE_RESPONSES_CACHE)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                ids.forEach(cache::evict);
+            }
+        }
+    }
+
+    private Optional<Long> updateFields(long id, Employee changes, Long expectedVersion) {
+        try {
+            Optional<Long> updated = employeeRepository.updateFields(id, changes, expectedVersion);
+            // a conditional update that matched nothing is a 404 only if the row is really gone
+            if (updated.isEmpty() && expectedVersion != null && employeeRepository.findVersionById(id).isPresent()) {
+                throw new EmployeeVersionMismatchException("Employee " + id + " is not at version " + expectedVersion);
+            }
+            return updated;
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new EmailAlreadyExistsException("Employee already exist with given email:" + changes.getEmail(), e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase().contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,52 @@
+package com.karthik.springboot.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// running latency aggregate of one query shape (SQL with literals and parameters replaced by ?)
+class QueryShapeStats {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos, boolean success) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    Summary summarize(String shape) {
+        long calls = count.sum();
+        double totalMillis = totalNanos.sum() / 1e6;
+        return new Summary(shape, calls, errors.sum(), totalMillis, calls > 0 ? totalMillis / calls : 0,
+                maxNanos.get() / 1e6);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Summary {
+
+        private String shape;
+
+        private long count;
+
+        private long errors;
+
+        private double totalMillis;
+
+        private double meanMillis;
+
+        private double maxMillis;
+    }
+}
@@ -0,0 +1,32 @@
+package com.karthik.springboot.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/queries: per-shape statement latency aggregates since start (or the last DELETE)
+@Endpoint(id = "queries")
+public class QueryStatsEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public QueryStatsEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> queries() {
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("droppedLogs", slowQueryLog.getDroppedLogs());
+        queries.put("shapes", slowQueryLog.summaries());
+        return queries;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryLog.reset();
+    }
+}
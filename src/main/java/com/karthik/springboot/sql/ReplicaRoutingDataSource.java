@@ -0,0 +1,246 @@
+package com.karthik.springboot.sql;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+// read-only transactions go to a replica, everything else to the primary. The routing decision is made when
+// the first statement runs (LazyConnectionDataSourceProxy), by which time the transaction's read-only flag is set
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        // fewest active connections in the replica's Hikari pool, ties broken round-robin
+        LEAST_CONNECTIONS
+    }
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final Balancing balancing;
+
+    private final long readYourWritesMillis;
+
+    private final long retryAfterNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    // System.nanoTime() before which a replica that refused a connection is skipped
+    private final AtomicLongArray downUntil;
+
+    // the client the current thread is serving, if any; only its own writes keep its reads on the primary
+    private final ThreadLocal<Client> client = new ThreadLocal<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Balancing balancing,
+                                    Duration readYourWrites, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.balancing = balancing;
+        this.readYourWritesMillis = readYourWrites.toMillis();
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.downUntil = new AtomicLongArray(replicas.size());
+
+        Router router = new Router();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int index = 0; index < this.replicas.size(); index++) {
+            targets.put(replicaKey(index), this.replicas.get(index));
+        }
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+        // reads the primary's auto-commit and isolation defaults, so that beginning a transaction never
+        // needs a real connection before the read-only flag is known
+        afterPropertiesSet();
+    }
+
+    public static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    public Duration getReadYourWrites() {
+        return Duration.ofMillis(readYourWritesMillis);
+    }
+
+    // binds the client of the current request to this thread until unbind(); a thread with no client (the
+    // write-behind writer, scheduled jobs) neither opens a read-your-writes window nor reads inside one
+    public void bind(Client client) {
+        this.client.set(client);
+    }
+
+    public void unbind() {
+        client.remove();
+    }
+
+    // reads of the bound client stay on the primary for the read-your-writes window after its own last write, so it
+    // does not read a changed row back from a replica that has not caught up yet; other clients keep using replicas
+    public boolean inReadYourWritesWindow() {
+        Client current = client.get();
+        return current != null && System.currentTimeMillis() - current.lastWriteMillis <= readYourWritesMillis;
+    }
+
+    // the key the next connection of the current transaction would be routed to
+    public String currentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (inReadYourWritesWindow()) {
+            return PRIMARY;
+        }
+        int replica = chooseReplica();
+        return replica < 0 ? PRIMARY : replicaKey(replica);
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        replicas.forEach(ReplicaRoutingDataSource::closeQuietly);
+    }
+
+    private int chooseReplica() {
+        int size = replicas.size();
+        long now = System.nanoTime();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        int chosen = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int offset = 0; offset < size; offset++) {
+            int index = (start + offset) % size;
+            if (downUntil.get(index) - now > 0) {
+                continue;
+            }
+            if (balancing == Balancing.ROUND_ROBIN) {
+                return index;
+            }
+            int active = activeConnections(replicas.get(index));
+            if (active < fewest) {
+                chosen = index;
+                fewest = active;
+            }
+        }
+        return chosen;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            // null until the pool has handed out its first connection
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+        return 0;
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Could not close {}", dataSource, e);
+            }
+        }
+    }
+
+    private class Router extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            String key = currentLookupKey();
+            // only read-write transactions count as writes; health checks and other bare connections do not
+            Client current = client.get();
+            if (current != null && TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                current.lastWriteMillis = System.currentTimeMillis();
+                // restart the window at commit, so a long transaction does not use it up before its writes are visible
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            current.written(System.currentTimeMillis());
+                        }
+                    });
+                } else {
+                    current.written(current.lastWriteMillis);
+                }
+            }
+            return key;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Object key = determineCurrentLookupKey();
+            return connect(key, () -> determineTargetDataSource(key).getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Object key = determineCurrentLookupKey();
+            return connect(key, () -> determineTargetDataSource(key).getConnection(username, password));
+        }
+
+        private DataSource determineTargetDataSource(Object key) {
+            return (DataSource) getResolvedDataSources().get(key);
+        }
+
+        // a replica that cannot hand out a connection is skipped for retry-after and the read goes to the primary
+        private Connection connect(Object key, ConnectionSupplier supplier) throws SQLException {
+            try {
+                return supplier.get();
+            } catch (SQLException e) {
+                if (PRIMARY.equals(key)) {
+                    throw e;
+                }
+                int index = replicas.indexOf(determineTargetDataSource(key));
+                downUntil.set(index, System.nanoTime() + retryAfterNanos);
+                log.warn("Replica {} unavailable, reading from the primary for the next {} ms: {}",
+                        key, retryAfterNanos / 1_000_000, e.getMessage());
+                return primary.getConnection();
+            }
+        }
+    }
+
+    // one client's last write, carried between its requests by the caller (a cookie, see ReadYourWritesFilter)
+    public static final class Client {
+
+        private long lastWriteMillis;
+
+        private final LongConsumer onWrite;
+
+        // lastWriteMillis is the epoch millis of the client's last committed write, 0 if it has none;
+        // onWrite receives the new value after each of its writes, to hand back to the client
+        public Client(long lastWriteMillis, LongConsumer onWrite) {
+            this.lastWriteMillis = lastWriteMillis;
+            this.onWrite = onWrite;
+        }
+
+        private void written(long millis) {
+            lastWriteMillis = millis;
+            onWrite.accept(millis);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
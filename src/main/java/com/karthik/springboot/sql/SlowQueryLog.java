@@ -0,0 +1,176 @@
+package com.karthik.springboot.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// times every JDBC statement; statements over the threshold (plus a sample of the rest) are logged off the
+// calling thread, and every statement is added to a per-shape latency aggregate. Only shapes are ever
+// logged or kept: bound parameters are never read and inline literals are replaced by ?
+@Slf4j
+public class SlowQueryLog implements QueryExecutionListener, AutoCloseable {
+
+    // shapes beyond maxShapes are aggregated here, so an unbounded stream of distinct SQL cannot grow the map
+    static final String OTHER_SHAPE = "(other)";
+
+    private static final String START_NANOS = SlowQueryLog.class.getName() + ".start";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+
+    // IN lists of any length share one shape
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long thresholdNanos;
+
+    private final double sampleRate;
+
+    private final int maxShapes;
+
+    private final Executor logExecutor;
+
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+    private final Map<String, QueryShapeStats> stats = new ConcurrentHashMap<>();
+
+    private final LongAdder droppedLogs = new LongAdder();
+
+    public SlowQueryLog(Duration threshold, double sampleRate, int maxShapes, int logQueueCapacity) {
+        this(threshold, sampleRate, maxShapes, newLogExecutor(logQueueCapacity));
+    }
+
+    SlowQueryLog(Duration threshold, double sampleRate, int maxShapes, Executor logExecutor) {
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.maxShapes = maxShapes;
+        this.logExecutor = logExecutor;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long started = execInfo.getCustomValue(START_NANOS, Long.class);
+        if (started == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - started;
+        String shape = shapeOf(queryInfoList);
+        statsFor(shape).record(nanos, execInfo.isSuccess());
+
+        boolean slow = nanos >= thresholdNanos;
+        if (slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            log(slow, nanos, shape, execInfo);
+        }
+    }
+
+    // aggregates ordered by total time, the biggest consumers first
+    public List<QueryShapeStats.Summary> summaries() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey()))
+                .sorted(Comparator.comparingDouble(QueryShapeStats.Summary::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    public long getDroppedLogs() {
+        return droppedLogs.sum();
+    }
+
+    @Override
+    public void close() {
+        if (logExecutor instanceof ExecutorService) {
+            ((ExecutorService) logExecutor).shutdown();
+        }
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private String shapeOf(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return shapeOf(queryInfoList.get(0).getQuery());
+        }
+        return queryInfoList.stream()
+                .map(queryInfo -> shapeOf(queryInfo.getQuery()))
+                .collect(Collectors.joining("; "));
+    }
+
+    // prepared statement SQL repeats, so its normalized form is cached (within the same bound as the stats)
+    private String shapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapes.size() < maxShapes) {
+                shapes.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private QueryShapeStats statsFor(String shape) {
+        QueryShapeStats shapeStats = stats.get(shape);
+        if (shapeStats != null) {
+            return shapeStats;
+        }
+        return stats.size() < maxShapes
+                ? stats.computeIfAbsent(shape, key -> new QueryShapeStats())
+                : stats.computeIfAbsent(OTHER_SHAPE, key -> new QueryShapeStats());
+    }
+
+    // a full log queue drops the entry (and counts it) rather than slowing down the statement
+    private void log(boolean slow, long nanos, String shape, ExecutionInfo execInfo) {
+        double millis = nanos / 1e6;
+        boolean success = execInfo.isSuccess();
+        int batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 1;
+        try {
+            logExecutor.execute(() -> {
+                if (slow) {
+                    log.warn("slow query {} ms (success={}, batch={}): {}", String.format("%.3f", millis), success, batchSize, shape);
+                } else {
+                    log.info("sampled query {} ms (success={}, batch={}): {}", String.format("%.3f", millis), success, batchSize, shape);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            droppedLogs.increment();
+        }
+    }
+
+    private static ExecutorService newLogExecutor(int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,8 @@
+-- the table as ddl-auto=update created it before the schema moved to Flyway; such databases are baselined here
+create table employees (
+    id bigint generated by default as identity,
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (id)
+);
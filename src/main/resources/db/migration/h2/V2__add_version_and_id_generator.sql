@@ -0,0 +1,13 @@
+-- ids come from the pooled employees_seq sequence instead of the identity column
+alter table employees alter column id bigint not null;
+
+-- existing rows start at version 0
+alter table employees add column version bigint default 0 not null;
+alter table employees alter column version drop default;
+
+alter table employees add constraint uk_employees_email unique (email);
+
+-- the pooled optimizer hands out the 50 ids up to the value it reads, so starting 50 above the highest id keeps
+-- new ids clear of existing ones
+create sequence employees_seq start with 1 increment by 50;
+alter sequence employees_seq restart with (select coalesce(max(id), 0) + 50 from employees);
@@ -0,0 +1,16 @@
+-- ids come from the pooled employees_seq generator instead of auto_increment
+alter table employees modify id bigint not null;
+
+-- existing rows start at version 0
+alter table employees add column version bigint not null default 0;
+alter table employees alter column version drop default;
+
+alter table employees add constraint uk_employees_email unique (email);
+
+-- MySQL has no sequences, so Hibernate keeps the pooled id generator in a one-row table. The pooled optimizer hands
+-- out the 50 ids up to the value it reads, so starting 50 above the highest id keeps new ids clear of existing ones
+create table employees_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into employees_seq select coalesce(max(id), 0) + 50 from employees;
@@ -0,0 +1,2 @@
+-- backs the first_name/last_name lookups in findByJPQL and findByNativeSQL
+create index idx_employees_name on employees (first_name, last_name);
@@ -0,0 +1,128 @@
+package com.karthik.springboot.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveLimiterTests {
+
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdaptiveLimiter limiter;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveLimiter("test", 10, 2, 12, THRESHOLD, 0.5, AdaptiveLimiter.Priority.READ, 0.8, meterRegistry);
+    }
+
+    private List<AdaptiveLimiter.Permit> acquire(AdaptiveLimiter.Priority priority, int count){
+        List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AdaptiveLimiter.Permit permit = limiter.tryAcquire(priority);
+            if (permit != null) {
+                permits.add(permit);
+            }
+        }
+        return permits;
+    }
+
+    @DisplayName("reads are shed at their share of the limit while writes still get the rest")
+    @Test
+    public void givenBusyLimiter_whenAcquire_thenReadsShedFirst(){
+        // when
+        List<AdaptiveLimiter.Permit> reads = acquire(AdaptiveLimiter.Priority.READ, 10);
+        List<AdaptiveLimiter.Permit> writes = acquire(AdaptiveLimiter.Priority.WRITE, 10);
+
+        // then
+        assertThat(reads).hasSize(8);
+        assertThat(writes).hasSize(2);
+        assertThat(meterRegistry.get(AdaptiveLimiter.REJECTED_COUNTER).tag("priority", "READ").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(AdaptiveLimiter.REJECTED_COUNTER).tag("priority", "WRITE").counter().count()).isEqualTo(8);
+    }
+
+    @DisplayName("slow or overloaded calls cut the limit, fast calls under load grow it back")
+    @Test
+    public void givenLatency_whenRelease_thenLimitAdapts() throws InterruptedException{
+        // given
+        AdaptiveLimiter.Permit slow = limiter.tryAcquire(AdaptiveLimiter.Priority.WRITE);
+        Thread.sleep(THRESHOLD.toMillis() * 2);
+
+        // when
+        slow.release(false);
+        int afterSlowCall = limiter.getLimit();
+        // a second slow signal within the same threshold does not cut again
+        limiter.tryAcquire(AdaptiveLimiter.Priority.WRITE).release(true);
+        int afterBurst = limiter.getLimit();
+        Thread.sleep(THRESHOLD.toMillis() * 2);
+        limiter.tryAcquire(AdaptiveLimiter.Priority.WRITE).release(true);
+        int afterOverload = limiter.getLimit();
+        for (int round = 0; round < 50; round++) {
+            acquire(AdaptiveLimiter.Priority.WRITE, limiter.getLimit()).forEach(permit -> permit.release(false));
+        }
+
+        // then
+        assertThat(afterSlowCall).isEqualTo(5);
+        assertThat(afterBurst).isEqualTo(5);
+        assertThat(afterOverload).isEqualTo(2);
+        assertThat(limiter.getLimit()).isEqualTo(12);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @DisplayName("a request over the limit gets 503 with Retry-After without reaching the controller")
+    @Test
+    public void givenFullLimiter_whenRequest_thenServiceUnavailable() throws Exception{
+        // given
+        RequestLimitFilter filter = new RequestLimitFilter(limiter, Duration.ofSeconds(2));
+        acquire(AdaptiveLimiter.Priority.READ, 8);
+        MockFilterChain getChain = new MockFilterChain();
+        MockFilterChain postChain = new MockFilterChain();
+        MockHttpServletResponse getResponse = new MockHttpServletResponse();
+        MockHttpServletResponse postResponse = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), getResponse, getChain);
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/employees"), postResponse, postChain);
+
+        // then
+        assertThat(getResponse.getStatus()).isEqualTo(503);
+        assertThat(getResponse.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(getChain.getRequest()).isNull();
+        assertThat(postResponse.getStatus()).isEqualTo(200);
+        assertThat(postChain.getRequest()).isNotNull();
+        assertThat(limiter.getInFlight()).isEqualTo(8);
+    }
+
+    @DisplayName("a streamed response frees its slot at the hand-off, and a long stream does not cut the limit")
+    @Test
+    public void givenStreamedResponse_whenStreamOutlastsThreshold_thenSlotFreedAndLimitKept() throws Exception{
+        // given
+        RequestLimitFilter filter = new RequestLimitFilter(limiter, Duration.ofSeconds(2));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/export");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        int inFlightWhileStreaming = limiter.getInFlight();
+        Thread.sleep(THRESHOLD.toMillis() * 2);
+        request.getAsyncContext().complete();
+
+        // then
+        assertThat(inFlightWhileStreaming).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+}
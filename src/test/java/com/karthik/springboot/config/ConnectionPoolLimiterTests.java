@@ -0,0 +1,152 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.exception.ConnectionLimitExceededException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import com.karthik.springboot.service.EmployeeService;
+import com.karthik.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+// the service as the application wires it, with a pool of one connection
+@SpringBootTest(classes = {CacheConfig.class, BatchingConfig.class, EmployeeServiceImpl.class, EmployeeSearchIndex.class,
+        ConnectionPoolLimiterTests.OneConnection.class})
+public class ConnectionPoolLimiterTests {
+
+    @TestConfiguration
+    @EnableAspectJAutoProxy
+    static class OneConnection {
+
+        @Bean
+        public ConnectionPoolLimiter connectionPoolLimiter() {
+            return new ConnectionPoolLimiter(1, Duration.ofMillis(100));
+        }
+
+        // a plain bean rather than @MockBean, so the limiter's repository advice applies to it
+        @Bean
+        public EmployeeRepository employeeRepository() {
+            return mock(EmployeeRepository.class);
+        }
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ConnectionPoolLimiter limiter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+
+    private Employee employee;
+
+    private ExecutorService executor;
+
+    private final CountDownLatch holding = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setup(){
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).clear();
+        employee = Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown(){
+        release.countDown();
+        executor.shutdown();
+    }
+
+    // another thread holds the only permit in getEmployeeVersion until release
+    private Future<Optional<Long>> holdPermit() throws InterruptedException{
+        given(employeeRepository.findVersionById(2L)).willAnswer(invocation -> {
+            holding.countDown();
+            release.await();
+            return Optional.of(0L);
+        });
+        Future<Optional<Long>> holder = executor.submit(() -> employeeService.getEmployeeVersion(2L));
+        holding.await();
+        return holder;
+    }
+
+    @DisplayName("calls that need a connection beyond the pool size wait and then fail with 503")
+    @Test
+    public void givenPermitHeld_whenCallService_thenThrowConnectionLimitExceeded() throws Exception{
+        // given
+        Future<Optional<Long>> holder = holdPermit();
+
+        // when - then
+        assertThatThrownBy(() -> employeeService.getEmployeeByEmail("karthik@gmail.com"))
+                .isInstanceOf(ConnectionLimitExceededException.class);
+        assertThatThrownBy(() -> employeeService.getEmployeeById(1L))
+                .isInstanceOf(ConnectionLimitExceededException.class);
+
+        release.countDown();
+        assertThat(holder.get()).contains(0L);
+        assertThat(limiter.availablePermits()).isEqualTo(1);
+    }
+
+    @DisplayName("cache hits and the in-memory search take no permit")
+    @Test
+    public void givenPermitHeld_whenCacheHitOrSearch_thenServed() throws Exception{
+        // given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+        searchIndex.put(employee);
+        Future<Optional<Long>> holder = holdPermit();
+
+        // when
+        Optional<Employee> cached = employeeService.getEmployeeById(1L);
+        List<Employee> found = employeeService.searchEmployees("karthik", 10);
+
+        // then
+        assertThat(cached).contains(employee);
+        assertThat(found).extracting(Employee::getId).containsExactly(1L);
+        release.countDown();
+        assertThat(holder.get()).contains(0L);
+    }
+
+    @DisplayName("repository calls inside a service transaction reuse its permit")
+    @Test
+    public void givenServiceTransaction_whenRepositoryCalls_thenReusePermit(){
+        // given
+        given(employeeRepository.findAllById(List.of(1L))).willReturn(List.of(employee));
+
+        // when
+        List<Employee> employees = employeeService.getEmployeesByIds(List.of(1L, 1L));
+
+        // then
+        assertThat(employees).containsExactly(employee);
+        assertThat(limiter.availablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class EmployeeTimingAspectTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService employeeService;
+
+    private EmployeeService timedService;
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        employeeService = mock(EmployeeService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(employeeService);
+        proxyFactory.addAspect(new EmployeeTimingAspect(meterRegistry));
+        timedService = proxyFactory.getProxy();
+    }
+
+    @DisplayName("successful service calls are timed per operation")
+    @Test
+    public void givenServiceCall_whenSucceeds_thenRecordSuccessTimer(){
+        // given
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.empty());
+
+        // when
+        timedService.getEmployeeById(1L);
+        timedService.getEmployeeById(1L);
+
+        // then
+        Timer timer = meterRegistry.get(EmployeeTimingAspect.SERVICE_TIMER)
+                .tags("operation", "getEmployeeById", "outcome", "SUCCESS", "exception", "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @DisplayName("failing service calls are timed with the exception")
+    @Test
+    public void givenServiceCall_whenThrows_thenRecordErrorTimer(){
+        // given
+        given(employeeService.saveEmployee(any(Employee.class))).willThrow(new EmailAlreadyExistsException("taken"));
+
+        // when
+        assertThatThrownBy(() -> timedService.saveEmployee(new Employee()))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+
+        // then
+        Timer timer = meterRegistry.get(EmployeeTimingAspect.SERVICE_TIMER)
+                .tags("operation", "saveEmployee", "outcome", "ERROR", "exception", "EmailAlreadyExistsException")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @DisplayName("repository queries are timed, persistence-context housekeeping is not")
+    @Test
+    public void givenRepositoryCalls_whenDetachAndFlushAndClear_thenOnlyQueryTimed(){
+        // given
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(employeeRepository);
+        proxyFactory.addAspect(new EmployeeTimingAspect(meterRegistry));
+        EmployeeRepository timedRepository = proxyFactory.getProxy();
+
+        // when
+        timedRepository.findById(1L);
+        timedRepository.detach(new Employee());
+        timedRepository.flushAndClear();
+
+        // then
+        assertThat(meterRegistry.get(EmployeeTimingAspect.REPOSITORY_TIMER).timers())
+                .extracting(timer -> timer.getId().getTag("operation"))
+                .containsExactly("findById");
+    }
+}
@@ -0,0 +1,41 @@
+package com.karthik.springboot.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaLagCacheManagerTests {
+
+    private final ReplicaLagCacheManager cacheManager =
+            new ReplicaLagCacheManager(new ConcurrentMapCacheManager(CacheConfig.EMPLOYEES_CACHE), Duration.ofMillis(100));
+
+    @AfterEach
+    void tearDown(){
+        cacheManager.destroy();
+    }
+
+    @DisplayName("an entry put back from a lagging replica right after an eviction is evicted again after the lag")
+    @Test
+    public void givenEntryPutAfterEvict_whenLagPassed_thenEvictedAgain() throws Exception{
+        // given
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        cache.put(1L, "old");
+        cache.evict(1L);
+
+        // when
+        cache.put(1L, "old, read from a replica");
+        Object duringLag = cache.get(1L, Object.class);
+        Thread.sleep(300);
+
+        // then
+        assertThat(duringLag).isEqualTo("old, read from a replica");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE)).isSameAs(cache);
+    }
+}
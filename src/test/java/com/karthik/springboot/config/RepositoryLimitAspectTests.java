@@ -0,0 +1,107 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.exception.ConcurrencyLimitExceededException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import com.karthik.springboot.service.EmployeeService;
+import com.karthik.springboot.service.impl.EmployeeServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// the service with its repository both advised, as in the application; the limit is a single slot
+public class RepositoryLimitAspectTests {
+
+    private AdaptiveLimiter limiter;
+
+    // the mock behind the advised repository, stubbed and verified directly so that doing so takes no permit
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeService limitedService;
+
+    @BeforeEach
+    public void setup(){
+        limiter = spy(new AdaptiveLimiter("test", 1, 1, 1, Duration.ofMillis(100), 0.5,
+                AdaptiveLimiter.Priority.READ, 1.0, new SimpleMeterRegistry()));
+        RepositoryLimitAspect aspect = new RepositoryLimitAspect(limiter, Duration.ofSeconds(1));
+        employeeRepository = mock(EmployeeRepository.class);
+        AspectJProxyFactory repositoryProxy = new AspectJProxyFactory(employeeRepository);
+        repositoryProxy.addAspect(aspect);
+        AspectJProxyFactory serviceProxy = new AspectJProxyFactory(
+                new EmployeeServiceImpl(repositoryProxy.getProxy(), new EmployeeSearchIndex(), null,
+                        new ConcurrentMapCacheManager()));
+        serviceProxy.addAspect(aspect);
+        limitedService = serviceProxy.getProxy();
+    }
+
+    @DisplayName("a transaction over the limit is turned away before its first statement")
+    @Test
+    public void givenFullLimit_whenSaveAll_thenRejectedBeforeAnyRepositoryCall(){
+        // given
+        AdaptiveLimiter.Permit held = limiter.tryAcquire(AdaptiveLimiter.Priority.WRITE);
+        List<Employee> employees = List.of(Employee.builder().firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build());
+
+        // when - then
+        assertThatThrownBy(() -> limitedService.saveAll(employees))
+                .isInstanceOf(ConcurrencyLimitExceededException.class);
+        verify(employeeRepository, never()).findExistingEmails(anyList());
+        verify(employeeRepository, never()).save(any(Employee.class));
+        held.release(false);
+    }
+
+    @DisplayName("a transaction takes one permit for all its statements, so it cannot be turned away halfway")
+    @Test
+    public void givenSeveralRows_whenSaveAll_thenOnePermitForTheTransaction(){
+        // given
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build(),
+                Employee.builder().firstName("Raja").lastName("Rao").email("raja@gmail.com").build());
+
+        // when
+        List<BulkCreateResult> results = limitedService.saveAll(employees);
+
+        // then
+        assertThat(results).extracting(BulkCreateResult::getStatus).containsOnly(BulkCreateResult.Status.CREATED);
+        verify(employeeRepository, times(2)).save(any(Employee.class));
+        verify(limiter, times(1)).tryAcquire(AdaptiveLimiter.Priority.WRITE);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @DisplayName("an export takes no permit for its stream")
+    @Test
+    public void givenFullLimit_whenExport_thenStreamed(){
+        // given
+        AdaptiveLimiter.Permit held = limiter.tryAcquire(AdaptiveLimiter.Priority.WRITE);
+        Employee employee = Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee));
+
+        // when
+        List<Employee> exported = new ArrayList<>();
+        limitedService.exportEmployees(exported::add);
+
+        // then
+        assertThat(exported).containsExactly(employee);
+        held.release(false);
+    }
+}
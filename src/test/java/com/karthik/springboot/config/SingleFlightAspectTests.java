@@ -0,0 +1,125 @@
+package com.karthik.springboot.config;
+
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SingleFlightAspectTests {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService employeeService;
+
+    private EmployeeService coalescedService;
+
+    private ExecutorService callers;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setup(){
+        meterRegistry = new SimpleMeterRegistry();
+        employeeService = mock(EmployeeService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(employeeService);
+        proxyFactory.addAspect(new SingleFlightAspect(meterRegistry));
+        coalescedService = proxyFactory.getProxy();
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        callers.shutdownNow();
+    }
+
+    private double coalesced(String operation){
+        return meterRegistry.get(SingleFlightAspect.COALESCED_COUNTER).tag("operation", operation).counter().count();
+    }
+
+    // lets the leader go once every other caller is waiting on its flight
+    private void releaseWhenCoalesced(String operation) throws InterruptedException{
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find(SingleFlightAspect.COALESCED_COUNTER).tag("operation", operation).counter() == null
+                || coalesced(operation) < CALLERS - 1) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+        release.countDown();
+    }
+
+    @DisplayName("concurrent lookups of one id share a single call and its result")
+    @Test
+    public void givenConcurrentLookups_whenGetEmployeeById_thenOneCall() throws Exception{
+        // given
+        Employee employee = Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build();
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            release.await();
+            return Optional.of(employee);
+        });
+
+        // when
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> coalescedService.getEmployeeById(1L)));
+        }
+        releaseWhenCoalesced("getEmployeeById");
+
+        // then
+        for (Future<Optional<Employee>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsSame(employee);
+        }
+        verify(employeeService, times(1)).getEmployeeById(1L);
+        assertThat(coalesced("getEmployeeById")).isEqualTo(CALLERS - 1);
+
+        // a call after the flight has landed queries again
+        coalescedService.getEmployeeById(1L);
+        verify(employeeService, times(2)).getEmployeeById(1L);
+    }
+
+    @DisplayName("callers waiting on a failed lookup get the same exception")
+    @Test
+    public void givenConcurrentLookups_whenGetEmployeeByEmailFails_thenAllFail() throws Exception{
+        // given
+        given(employeeService.getEmployeeByEmail("karthik@gmail.com")).willAnswer(invocation -> {
+            release.await();
+            throw new IllegalStateException("database unavailable");
+        });
+
+        // when
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> coalescedService.getEmployeeByEmail("karthik@gmail.com")));
+        }
+        releaseWhenCoalesced("getEmployeeByEmail");
+
+        // then
+        for (Future<Optional<Employee>> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("database unavailable");
+        }
+        verify(employeeService, times(1)).getEmployeeByEmail("karthik@gmail.com");
+    }
+}
@@ -1,23 +1,40 @@
 package com.karthik.springboot.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.dto.CreateStatus;
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
 import com.karthik.springboot.model.Employee;
 import com.karthik.springboot.service.EmployeeService;
+import com.karthik.springboot.service.impl.EmployeeCreateQueue;
 
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,6 +50,12 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeCreateQueue createQueue;
+
+    @MockBean
+    private EmployeeResponseCache responseCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,13 +87,87 @@ public class EmployeeControllerTests {
 
     }
 
+    // unit test case to create employee with an email that is already taken
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409() throws Exception{
+
+        Employee employee = Employee.builder()
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new EmailAlreadyExistsException("Employee already exist with given email:karthik@gmail.com"));
+
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        response.andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    // unit test case to create employee with write-behind on
+    @Test
+    public void givenWriteBehind_whenCreateEmployee_thenReturn202WithStatusUrl() throws Exception{
+
+        Employee employee = Employee.builder()
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build();
+        given(createQueue.isEnabled()).willReturn(true);
+        given(createQueue.submit(any(Employee.class))).willReturn(CreateStatus.pending("t-1", "karthik@gmail.com"));
+        given(createQueue.getStatus("t-1")).willReturn(Optional.of(CreateStatus.created("t-1", "karthik@gmail.com", 7L)));
+
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        ResultActions status = mockMvc.perform(get("/api/employees/creates/t-1"));
+        ResultActions missing = mockMvc.perform(get("/api/employees/creates/t-2"));
+
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/employees/creates/t-1"))
+                .andExpect(jsonPath("$.status", is("PENDING")));
+        status.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/employees/7"))
+                .andExpect(jsonPath("$.status", is("CREATED")))
+                .andExpect(jsonPath("$.id", is(7)));
+        missing.andExpect(status().isNotFound());
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    // unit test case to create employees in bulk
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnPerRowResults() throws Exception{
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build());
+        listOfEmployees.add(Employee.builder().firstName("yogish").lastName("hp").email("karthik@gmail.com").build());
+        given(employeeService.saveAll(anyList())).willReturn(List.of(
+                new BulkCreateResult(0, "karthik@gmail.com", BulkCreateResult.Status.CREATED, 1L, null),
+                BulkCreateResult.conflict(1, "karthik@gmail.com", "Employee already exist with given email:karthik@gmail.com")));
+
+        ResultActions response = mockMvc.perform(post("/api/employees/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        // output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].status", is("CONFLICT")));
+    }
+
     // unit test case to get all employees
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception{
         List<Employee> listOfEmployees = new ArrayList<>();
         listOfEmployees.add(Employee.builder().firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build());
         listOfEmployees.add(Employee.builder().firstName("yogish").lastName("hp").email("hp@gmail.com").build());
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+        given(employeeService.getEmployees(0L, 20)).willReturn(new SliceImpl<>(listOfEmployees));
 
         
         ResultActions response = mockMvc.perform(get("/api/employees"));
@@ -78,9 +175,192 @@ public class EmployeeControllerTests {
         // output
         response.andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$.size()",
-                        is(listOfEmployees.size())));
+                .andExpect(jsonPath("$.content.size()",
+                        is(listOfEmployees.size())))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+    }
+
+    // unit test case to get a page of employees as CBOR and as Smile
+    @Test
+    public void givenBinaryAccept_whenGetAllEmployees_thenReturnBinaryPage() throws Exception{
+        // precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build());
+        given(employeeService.getEmployees(0L, 20)).willReturn(new SliceImpl<>(listOfEmployees));
+
+        for (ObjectMapper binaryMapper : List.of(new CBORMapper(), new SmileMapper())) {
+            String mediaType = binaryMapper instanceof CBORMapper ? "application/cbor" : "application/x-jackson-smile";
+
+            // action or the behaviour that we are going test
+            MvcResult result = mockMvc.perform(get("/api/employees").accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(mediaType))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                    .andReturn();
+
+            // output
+            JsonNode page = binaryMapper.readTree(result.getResponse().getContentAsByteArray());
+            assertThat(page.get("content").get(0).get("email").asText(), is("karthik@gmail.com"));
+        }
+    }
+
+    // unit test case to look up an employee by email
+    @Test
+    public void givenEmail_whenGetAllEmployees_thenReturnMatchingEmployee() throws Exception{
+        Employee employee = Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build();
+        given(employeeService.getEmployeeByEmail("karthik@gmail.com")).willReturn(Optional.of(employee));
+        given(employeeService.getEmployeeByEmail("nobody@gmail.com")).willReturn(Optional.empty());
+
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", "karthik@gmail.com"));
+        ResultActions missing = mockMvc.perform(get("/api/employees").param("email", "nobody@gmail.com"));
+
+        // output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+        missing.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(0)));
+    }
+
+    // unit test case to get several employees by id in one call
+    @Test
+    public void givenIds_whenGetAllEmployees_thenReturnEmployeesInRequestOrder() throws Exception{
+        // precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(3L).firstName("yogish").lastName("hp").email("hp@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build());
+        given(employeeService.getEmployeesByIds(List.of(3L, 2L, 1L))).willReturn(listOfEmployees);
+
+        // action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "3,2,1"));
+
+        // output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(2)))
+                .andExpect(jsonPath("$.content[0].id", is(3)))
+                .andExpect(jsonPath("$.content[1].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    // unit test case for a multi-get of more ids than a page holds
+    @Test
+    public void givenTooManyIds_whenGetAllEmployees_thenReturn400() throws Exception{
+        // precondition or setup
+        List<String> ids = new ArrayList<>();
+        for (long id = 1; id <= EmployeeController.MAX_PAGE_SIZE + 1; id++) {
+            ids.add(Long.toString(id));
+        }
+
+        // action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", String.join(",", ids)));
+
+        // output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(employeeService, never()).getEmployeesByIds(anyList());
+    }
+
+    // unit test case for ids or email combined with parameters they do not take
+    @Test
+    public void givenIdsOrEmailWithOtherParameters_whenGetAllEmployees_thenReturn400() throws Exception{
+        // action or the behaviour that we are going test
+        List<ResultActions> responses = List.of(
+                mockMvc.perform(get("/api/employees").param("ids", "1,2").param("email", "karthik@gmail.com")),
+                mockMvc.perform(get("/api/employees").param("ids", "1,2").param("fields", "email")),
+                mockMvc.perform(get("/api/employees").param("ids", "1,2").param("after", "0")),
+                mockMvc.perform(get("/api/employees").param("email", "karthik@gmail.com").param("fields", "email")),
+                mockMvc.perform(get("/api/employees").param("email", "karthik@gmail.com").param("after", "5")));
+
+        // output
+        for (ResultActions response : responses) {
+            response.andExpect(status().isBadRequest());
+        }
+        verify(employeeService, never()).getEmployeesByIds(anyList());
+        verify(employeeService, never()).getEmployeeByEmail(anyString());
+    }
+
+    // unit test case to get a keyset page of employees with a next cursor
+    @Test
+    public void givenMoreEmployees_whenGetAllEmployeesWithLimit_thenReturnNextCursor() throws Exception{
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(11L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(12L).firstName("yogish").lastName("hp").email("hp@gmail.com").build());
+        given(employeeService.getEmployees(10L, 100))
+                .willReturn(new SliceImpl<>(listOfEmployees, PageRequest.of(0, 100), true));
+
+        // limit above the cap is clamped to the maximum page size
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "5000"));
+
+        // output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content.size()", is(2)))
+                .andExpect(jsonPath("$.limit", is(100)))
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+    }
+
+    // unit test case to get a page of employees with only the selected fields
+    @Test
+    public void givenFields_whenGetAllEmployees_thenReturnProjectedEmployees() throws Exception{
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 11L);
+        row.put("email", "karthik@gmail.com");
+        given(employeeService.getEmployeeFields(0L, 1, List.of("email")))
+                .willReturn(new SliceImpl<>(List.of(row), PageRequest.of(0, 1), true));
+
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "1")
+                .param("fields", "email"));
+
+        // output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content[0].id", is(11)))
+                .andExpect(jsonPath("$.content[0].email", is("karthik@gmail.com")))
+                .andExpect(jsonPath("$.content[0].firstName").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is(11)));
+    }
+
+    // unit test case to reject a field that cannot be selected
+    @Test
+    public void givenUnknownField_whenGetAllEmployees_thenReturn400() throws Exception{
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("fields", "firstName,salary"));
+
+        // output
+        response.andExpect(status().isBadRequest());
+        verifyNoInteractions(employeeService);
+    }
+
+    // unit test case to export employees as newline-delimited JSON
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamNdjson() throws Exception{
+        Employee employee = Employee.builder().id(1L).firstName("Karthik").lastName("Pavan").email("karthik@gmail.com").build();
+        Employee employee1 = Employee.builder().id(2L).firstName("yogish").lastName("hp").email("hp@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee1);
+            return null;
+        }).given(employeeService).exportEmployees(any());
+
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
+        // output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(employee) + "\n"
+                                + objectMapper.writeValueAsString(employee1) + "\n"));
     }
 
     // valid employee id
@@ -107,6 +387,162 @@ public class EmployeeControllerTests {
 
     }
 
+    // unit test case to get employee by id with only the selected fields
+    @Test
+    public void givenFields_whenGetEmployeeById_thenReturnProjectedEmployee() throws Exception{
+        long employeeId = 1L;
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", employeeId);
+        row.put("firstName", "Karthik");
+        row.put("lastName", "Pavan");
+        given(employeeService.getEmployeeFieldsById(employeeId, List.of("firstName", "lastName")))
+                .willReturn(Optional.of(row));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .param("fields", "firstName,lastName"));
+
+        // verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.firstName", is("Karthik")))
+                .andExpect(jsonPath("$.lastName", is("Pavan")))
+                .andExpect(jsonPath("$.email").doesNotExist());
+    }
+
+    // unit test case to get employee by id in a type Spring MVC negotiates, with a weak ETag
+    @Test
+    public void givenEmployeeWithVersion_whenGetEmployeeById_thenReturnETag() throws Exception{
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .version(3L)
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+
+        // verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    // unit test case to get employee by id from the encoded response cache
+    @Test
+    public void givenEncodedEmployee_whenGetEmployeeById_thenWriteCachedBytes() throws Exception{
+        long employeeId = 1L;
+        byte[] body = "{\"id\":1,\"firstName\":\"Karthik\",\"version\":3}".getBytes();
+        given(responseCache.negotiate(null)).willReturn(MediaType.APPLICATION_JSON);
+        given(responseCache.get(eq(employeeId), eq(MediaType.APPLICATION_JSON), any()))
+                .willReturn(Optional.of(new EmployeeResponseCache.EncodedEmployee(body, 3L)));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+
+        // verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(body))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    // unit test case to get employee by id as CBOR, whose ETag is not the JSON one
+    @Test
+    public void givenJsonETag_whenGetEmployeeByIdAsCbor_thenReturnCborWithItsETag() throws Exception{
+        long employeeId = 1L;
+        byte[] body = new byte[] {(byte) 0xa1, 0x62, 'i', 'd', 0x01};
+        given(responseCache.negotiate("application/cbor")).willReturn(MediaType.APPLICATION_CBOR);
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+        given(responseCache.get(eq(employeeId), eq(MediaType.APPLICATION_CBOR), any()))
+                .willReturn(Optional.of(new EmployeeResponseCache.EncodedEmployee(body, 3L)));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        // verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(content().bytes(body))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    // unit test case to get an unchanged employee by id
+    @Test
+    public void givenMatchingETag_whenGetEmployeeById_thenReturn304() throws Exception{
+        long employeeId = 1L;
+        given(responseCache.negotiate(null)).willReturn(MediaType.APPLICATION_JSON);
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\", W/\"3\""));
+
+        // verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    // unit test case to get an unchanged, cached employee by id
+    @Test
+    public void givenMatchingETagOfCachedEmployee_whenGetEmployeeById_thenReturn304WithoutQuery() throws Exception{
+        long employeeId = 1L;
+        given(responseCache.negotiate(null)).willReturn(MediaType.APPLICATION_JSON);
+        given(responseCache.cachedVersion(employeeId, MediaType.APPLICATION_JSON)).willReturn(Optional.of(3L));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        // verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        verify(employeeService, never()).getEmployeeVersion(employeeId);
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    // unit test case for one If-None-Match sent with Accept switched between JSON and CBOR
+    @Test
+    public void givenCborETag_whenGetEmployeeByIdAsJsonThenCbor_thenOnlyCborNotModified() throws Exception{
+        long employeeId = 1L;
+        byte[] body = "{\"id\":1,\"firstName\":\"Karthik\",\"version\":3}".getBytes();
+        given(responseCache.negotiate("application/json")).willReturn(MediaType.APPLICATION_JSON);
+        given(responseCache.negotiate("application/cbor")).willReturn(MediaType.APPLICATION_CBOR);
+        given(responseCache.cachedVersion(employeeId, MediaType.APPLICATION_JSON)).willReturn(Optional.of(3L));
+        given(responseCache.cachedVersion(employeeId, MediaType.APPLICATION_CBOR)).willReturn(Optional.of(3L));
+        given(responseCache.get(eq(employeeId), eq(MediaType.APPLICATION_JSON), any()))
+                .willReturn(Optional.of(new EmployeeResponseCache.EncodedEmployee(body, 3L)));
+
+        ResultActions json = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3-cbor\""));
+        ResultActions cbor = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3-cbor\""));
+
+        // verify the output
+        json.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().bytes(body))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        cbor.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(responseCache, never()).get(eq(employeeId), eq(MediaType.APPLICATION_CBOR), any());
+        verify(employeeService, never()).getEmployeeVersion(employeeId);
+    }
+
     // negative scenario with no employee id
     // unit test case to get employee by id
     @Test
@@ -142,9 +578,8 @@ public class EmployeeControllerTests {
                     .lastName("hy")
                     .email("hy@gmail.com")
                     .build();
-            given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-            given(employeeService.updateEmployee(any(Employee.class)))
-                    .willAnswer((invocation)-> invocation.getArgument(0));
+            given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                    .willAnswer((invocation)-> Optional.of(invocation.getArgument(1)));
 
             ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                                         .contentType(MediaType.APPLICATION_JSON)
@@ -174,9 +609,8 @@ public class EmployeeControllerTests {
                 .lastName("hp")
                 .email("raja@gmail.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation)-> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull()))
+                .willReturn(Optional.empty());
 
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -187,11 +621,130 @@ public class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    // unit test to update employee REST API with a stale ETag
+    @Test
+    public void givenStaleETag_whenUpdateEmployee_thenReturn412() throws Exception{
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("raja")
+                .lastName("hp")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(2L)))
+                .willThrow(new EmployeeVersionMismatchException("Employee 1 is not at version 2"));
+
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+    }
+
+    // unit test to update employee REST API with the ETag of a CBOR representation
+    @Test
+    public void givenCborETag_whenUpdateEmployee_thenVersionChecked() throws Exception{
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("raja")
+                .lastName("hp")
+                .email("raja@gmail.com")
+                .version(3L)
+                .build();
+        given(responseCache.negotiate("application/cbor")).willReturn(MediaType.APPLICATION_CBOR);
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(2L)))
+                .willReturn(Optional.of(updatedEmployee));
+
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2-cbor\"")
+                .accept(MediaType.APPLICATION_CBOR)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+    }
+
+    // unit test to update employee REST API with a missing field
+    @Test
+    public void givenIncompleteEmployee_whenUpdateEmployee_thenReturn400() throws Exception{
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("raja")
+                .build();
+
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(employeeService, never()).updateEmployee(anyLong(), any(Employee.class), any());
+    }
+
+    // unit test to patch employee
+    @Test
+    public void givenChangedFields_whenPatchEmployee_thenReturn204() throws Exception{
+        long employeeId = 1L;
+        given(employeeService.patchEmployee(eq(employeeId), any(Employee.class), isNull())).willReturn(true);
+
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"raja@gmail.com\"}"));
+
+        //verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+    }
+
+    // unit test to patch employee REST API - negative way
+    @Test
+    public void givenChangedFields_whenPatchEmployee_thenReturn404() throws Exception{
+        long employeeId = 1L;
+        given(employeeService.patchEmployee(eq(employeeId), any(Employee.class), isNull())).willReturn(false);
+
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"raja@gmail.com\"}"));
+
+        //verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+// unit test for search REST API: the limit is capped
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnMatches() throws Exception{
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build();
+        given(employeeService.searchEmployees("karth", EmployeeController.MAX_SEARCH_RESULTS)).willReturn(List.of(employee));
+
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "karth")
+                .param("limit", "1000"));
+
+        //verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    }
+
 // unit test to delete employee 
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception{
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
 
@@ -199,4 +752,33 @@ public class EmployeeControllerTests {
         response.andExpect(status().isOk())
                 .andDo(print());
     }
+
+    // unit test to delete employee REST API - negative way
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception{
+        long employeeId = 1L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    // unit test to delete employees in bulk
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception{
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3, 3]"));
+
+        //verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.requested", is(3)))
+                .andExpect(jsonPath("$.deleted", is(2)));
+    }
 }
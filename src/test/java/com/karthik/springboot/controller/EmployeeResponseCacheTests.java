@@ -0,0 +1,157 @@
+package com.karthik.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.karthik.springboot.config.CacheConfig;
+import com.karthik.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeResponseCacheTests {
+
+    private CacheManager cacheManager;
+
+    private EmployeeResponseCache responseCache;
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // stands in for getEmployeeById, which leaves the employee in the data cache
+    private final LongFunction<Optional<Employee>> loader = id -> {
+        loads.incrementAndGet();
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).put(id, employee);
+        return Optional.of(employee);
+    };
+
+    @BeforeEach
+    public void setup(){
+        cacheManager = new CacheConfig().cacheManager(100, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        objectMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        responseCache = new EmployeeResponseCache(cacheManager,
+                new MappingJackson2HttpMessageConverter(objectMapper),
+                new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()),
+                new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build()));
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .version(3L)
+                .build();
+    }
+
+    @DisplayName("a repeated lookup writes the bytes encoded the first time")
+    @Test
+    public void givenEncodedEmployee_whenGetTwice_thenLoadedAndEncodedOnce() throws Exception{
+        // given
+        EmployeeResponseCache.EncodedEmployee first = responseCache.get(1L, MediaType.APPLICATION_JSON, loader).orElseThrow();
+
+        // when
+        EmployeeResponseCache.EncodedEmployee second = responseCache.get(1L, MediaType.APPLICATION_JSON, loader).orElseThrow();
+
+        // then
+        assertThat(second.getBody()).isSameAs(first.getBody()).isEqualTo(objectMapper.writeValueAsBytes(employee));
+        assertThat(second.getVersion()).isEqualTo(3L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @DisplayName("each media type is encoded and cached separately")
+    @Test
+    public void givenJsonCached_whenGetCbor_thenEncodedAsCbor() throws Exception{
+        // given
+        responseCache.get(1L, MediaType.APPLICATION_JSON, loader);
+
+        // when
+        byte[] cbor = responseCache.get(1L, MediaType.APPLICATION_CBOR, loader).orElseThrow().getBody();
+
+        // then
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, Employee.class).getEmail()).isEqualTo("karthik@gmail.com");
+        assertThat(responseCache.get(1L, MediaType.APPLICATION_JSON, loader).orElseThrow().getBody())
+                .isEqualTo(objectMapper.writeValueAsBytes(employee));
+        assertThat(loads).hasValue(2);
+    }
+
+    @DisplayName("bytes of an employee evicted while it was being encoded are not kept")
+    @Test
+    public void givenEmployeeEvictedDuringEncode_whenGetAgain_thenEncodedAgain(){
+        // given - an update evicts the employee between the lookup and the put
+        LongFunction<Optional<Employee>> evictingLoader = id -> {
+            loads.incrementAndGet();
+            cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).evict(id);
+            return Optional.of(employee);
+        };
+        responseCache.get(1L, MediaType.APPLICATION_JSON, evictingLoader);
+
+        // when
+        responseCache.get(1L, MediaType.APPLICATION_JSON, loader);
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    @DisplayName("the cached version comes from the encoded entry or the data cache, and is empty when neither has it")
+    @Test
+    public void givenCachedEmployee_whenCachedVersion_thenVersionWithoutLoading(){
+        // given
+        assertThat(responseCache.cachedVersion(1L, MediaType.APPLICATION_JSON)).isEmpty();
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).put(1L, employee);
+
+        // when
+        Optional<Long> version = responseCache.cachedVersion(1L, MediaType.APPLICATION_JSON);
+
+        // then
+        assertThat(version).contains(3L);
+        assertThat(responseCache.cachedVersion(1L, null)).contains(3L);
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).put(2L, null);
+        assertThat(responseCache.cachedVersion(2L, MediaType.APPLICATION_JSON)).isEmpty();
+        assertThat(loads).hasValue(0);
+    }
+
+    @DisplayName("the version is read from the entry only for a media type it holds bytes for")
+    @Test
+    public void givenJsonEncoded_whenCachedVersionForCbor_thenFromDataCacheOnly(){
+        // given - JSON bytes cached, then the data cache entry expires on its own
+        responseCache.get(1L, MediaType.APPLICATION_JSON, loader);
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).evict(1L);
+
+        // when
+        Optional<Long> json = responseCache.cachedVersion(1L, MediaType.APPLICATION_JSON);
+        Optional<Long> cbor = responseCache.cachedVersion(1L, MediaType.APPLICATION_CBOR);
+
+        // then
+        assertThat(json).contains(3L);
+        assertThat(cbor).isEmpty();
+    }
+
+    @DisplayName("Accept picks JSON, CBOR or Smile, and anything else is left to Spring MVC")
+    @Test
+    public void givenAcceptHeaders_whenNegotiate_thenCachedMediaTypeOrNull(){
+        assertThat(responseCache.negotiate(null)).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(responseCache.negotiate("*/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(responseCache.negotiate("application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(responseCache.negotiate("application/x-jackson-smile;q=0.5, application/json"))
+                .isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(responseCache.negotiate("application/json;q=0, application/cbor;q=0.1"))
+                .isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(responseCache.negotiate("text/html")).isNull();
+    }
+}
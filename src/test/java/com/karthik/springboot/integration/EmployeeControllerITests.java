@@ -3,15 +3,19 @@ package com.karthik.springboot.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.karthik.springboot.model.Employee;
 import com.karthik.springboot.repository.EmployeeRepository;
-import org.unit.jupiter.api.BeforeEach;
-import org.unit.jupiter.api.Test;
+import com.karthik.springboot.support.SqlCountingConfiguration;
+import com.karthik.springboot.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@Import(SqlCountingConfiguration.class)
 public class EmployeeControllerITests {
 
     @Autowired
@@ -38,6 +43,9 @@ public class EmployeeControllerITests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
     @BeforeEach
     void setup(){
         employeeRepository.deleteAll();
@@ -54,6 +62,7 @@ public class EmployeeControllerITests {
                 .build();
 
 		// when
+        sqlStatementCounter.reset();
         ResultActions response = mockMvc.perform(post("/api/employees")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(employee)));
@@ -67,6 +76,10 @@ public class EmployeeControllerITests {
                         is(employee.getLastName())))
                 .andExpect(jsonPath("$.email",
                         is(employee.getEmail())));
+        // a single insert; the unique index does the duplicate check
+        sqlStatementCounter.statements()
+                .assertInserts(1)
+                .assertWithin(Duration.ofSeconds(2));
 
     }
 
@@ -77,13 +90,16 @@ public class EmployeeControllerITests {
         listOfEmployees.add(Employee.builder().firstName("Karthik").lastName("Pavan").email("Karthik@gmail.com").build());
         listOfEmployees.add(Employee.builder().firstName("raja").lastName("hp").email("raja@gmail.com").build());
         employeeRepository.saveAll(listOfEmployees);
+        sqlStatementCounter.reset();
         ResultActions response = mockMvc.perform(get("/api/employees"));
 
         //verify the output
         response.andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$.size()",
+                .andExpect(jsonPath("$.content.size()",
                         is(listOfEmployees.size())));
+        // one page query, no per-row loads
+        sqlStatementCounter.statements().assertSelects(1);
 
     }
 
@@ -98,6 +114,7 @@ public class EmployeeControllerITests {
                 .build();
         employeeRepository.save(employee);
 
+        sqlStatementCounter.reset();
         ResultActions response = mockMvc.perform(get("/api/employees/{id}", employee.getId()));
 
         //verify the output
@@ -106,6 +123,7 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        sqlStatementCounter.statements().assertSelectsAtMost(1).assertTotalAtMost(1);
 
     }
 
@@ -149,6 +167,7 @@ public class EmployeeControllerITests {
                 .build();
 
         // when
+        sqlStatementCounter.reset();
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedEmployee)));
@@ -160,6 +179,8 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
+        // one UPDATE, no read of the current row first
+        sqlStatementCounter.statements().assertUpdates(1).assertSelectsAtMost(0);
     }
 
     // unit test to update employee
@@ -202,10 +223,12 @@ public class EmployeeControllerITests {
         employeeRepository.save(savedEmployee);
 
         // when 
+        sqlStatementCounter.reset();
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId()));
 
         // then 
         response.andExpect(status().isOk())
                 .andDo(print());
+        sqlStatementCounter.statements().assertDeletes(1).assertTotalAtMost(1);
     }
 }
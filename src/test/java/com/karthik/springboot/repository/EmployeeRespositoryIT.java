@@ -1,12 +1,16 @@
 package com.karthik.springboot.repository;
 
 import com.karthik.springboot.model.Employee;
-import org.unit.jupiter.api.BeforeEach;
-import org.unit.jupiter.api.DisplayName;
-import org.unit.jupiter.api.Test;
+import com.karthik.springboot.support.SqlCountingConfiguration;
+import com.karthik.springboot.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,11 +19,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SqlCountingConfiguration.class)
 public class EmployeeRespositoryIT {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
     private Employee employee;
 
     @BeforeEach
@@ -47,6 +58,10 @@ public class EmployeeRespositoryIT {
         // then 
         assertThat(savedEmployee).isNotNull();
         assertThat(savedEmployee.getId()).isGreaterThan(0);
+        // the insert itself, with no existence check before it
+        sqlStatementCounter.count(employeeRepository::flush)
+                .assertInserts(1)
+                .assertTotalAtMost(1);
     }
 
 
@@ -69,9 +84,12 @@ public class EmployeeRespositoryIT {
 
         employeeRepository.save(employee);
         employeeRepository.save(employee1);
+        employeeRepository.flush();
 
         // when 
+        sqlStatementCounter.reset();
         List<Employee> employeeList = employeeRepository.findAll();
+        sqlStatementCounter.statements().assertSelects(1);
 
         // then 
         assertThat(employeeList).isNotNull();
@@ -90,12 +108,16 @@ public class EmployeeRespositoryIT {
 //                .email("karthik@gmail,com")
 //                .build();
         employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
 
         // when 
+        sqlStatementCounter.reset();
         Employee employeeDB = employeeRepository.findById(employee.getId()).get();
 
         // then 
         assertThat(employeeDB).isNotNull();
+        sqlStatementCounter.statements().assertSelectsAtMost(1).assertTotalAtMost(1);
     }
 
     // unit test for get employee by email operation
@@ -109,12 +131,16 @@ public class EmployeeRespositoryIT {
 //                .email("karthik@gmail,com")
 //                .build();
         employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
 
         // when 
+        sqlStatementCounter.reset();
         Employee employeeDB = employeeRepository.findByEmail(employee.getEmail()).get();
 
         // then 
         assertThat(employeeDB).isNotNull();
+        sqlStatementCounter.statements().assertSelects(1).assertTotalAtMost(1);
     }
 
     // unit test to update employee operation
@@ -160,6 +186,44 @@ public class EmployeeRespositoryIT {
         assertThat(employeeOptional).isEmpty();
     }
 
+    // unit test to delete employee by id with a single statement
+    @DisplayName("unit test for delete employee by id operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenRemoveEmployee(){
+        // given 
+        employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when 
+        sqlStatementCounter.reset();
+        employeeRepository.deleteEmployeeById(employee.getId());
+        Optional<Employee> employeeOptional = employeeRepository.findById(employee.getId());
+
+        // then 
+        assertThat(employeeOptional).isEmpty();
+        // one DELETE statement, no load of the entity first
+        sqlStatementCounter.statements().assertDeletes(1).assertSelectsAtMost(1);
+    }
+
+    // unit test that an update returns the version it wrote without a second statement
+    @DisplayName("unit test for update fields returning the new version")
+    @Test
+    public void givenEmployeeObject_whenUpdateFields_thenReturnVersionInOneStatement(){
+        // given
+        employeeRepository.saveAndFlush(employee);
+        Employee changes = Employee.builder().firstName("Raja").build();
+
+        // when
+        sqlStatementCounter.reset();
+        Optional<Long> version = employeeRepository.updateFields(employee.getId(), changes, 0L);
+
+        // then - LAST_INSERT_ID(version + 1) comes back with the UPDATE's row count
+        sqlStatementCounter.statements().assertUpdates(1).assertTotalAtMost(1);
+        assertThat(version).contains(1L);
+        assertThat(employeeRepository.updateFields(employee.getId(), changes, 0L)).isEmpty();
+    }
+
     // unit test for custom query using JPQL with index
     @DisplayName("unit test for custom query using JPQL with index")
     @Test
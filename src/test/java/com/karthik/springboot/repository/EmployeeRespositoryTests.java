@@ -1,23 +1,47 @@
 package com.karthik.springboot.repository;
 
 import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.support.SqlCountingConfiguration;
+import com.karthik.springboot.support.SqlStatementCounter;
 import static org.assertj.core.api.Assertions.assertThat;
 
-import org.unit.jupiter.api.BeforeEach;
-import org.unit.jupiter.api.DisplayName;
-import org.unit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(SqlCountingConfiguration.class)
 public class EmployeeRespositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Employee employee;
 
     @BeforeEach
@@ -45,6 +69,10 @@ public class EmployeeRespositoryTests {
         // then  
         assertThat(savedEmployee).isNotNull();
         assertThat(savedEmployee.getId()).isGreaterThan(0);
+        // the insert itself, with no existence check before it
+        sqlStatementCounter.count(employeeRepository::flush)
+                .assertInserts(1)
+                .assertTotalAtMost(1);
     }
 
 
@@ -67,9 +95,12 @@ public class EmployeeRespositoryTests {
 
         employeeRepository.save(employee);
         employeeRepository.save(employee1);
+        employeeRepository.flush();
 
         // when  
+        sqlStatementCounter.reset();
         List<Employee> employeeList = employeeRepository.findAll();
+        sqlStatementCounter.statements().assertSelects(1);
 
         // then  
         assertThat(employeeList).isNotNull();
@@ -88,12 +119,16 @@ public class EmployeeRespositoryTests {
 //                .email("karthik@gmail,com")
 //                .build();
         employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
 
         // when  
+        sqlStatementCounter.reset();
         Employee employeeDB = employeeRepository.findById(employee.getId()).get();
 
         // then  
         assertThat(employeeDB).isNotNull();
+        sqlStatementCounter.statements().assertSelectsAtMost(1).assertTotalAtMost(1);
     }
 
     // unit test to get employee by email operation
@@ -107,12 +142,16 @@ public class EmployeeRespositoryTests {
 //                .email("karthik@gmail,com")
 //                .build();
         employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
 
         // when  
+        sqlStatementCounter.reset();
         Employee employeeDB = employeeRepository.findByEmail(employee.getEmail()).get();
 
         // then  
         assertThat(employeeDB).isNotNull();
+        sqlStatementCounter.statements().assertSelects(1).assertTotalAtMost(1);
     }
 
     // unit test for update employee operation
@@ -138,6 +177,54 @@ public class EmployeeRespositoryTests {
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Seetha");
     }
 
+    // unit test that an update returns the version it wrote from the same statement
+    @DisplayName("unit test for update fields returning the new version")
+    @Test
+    public void givenSavedEmployee_whenUpdateFields_thenReturnVersionInOneStatement(){
+        // given
+        employeeRepository.saveAndFlush(employee);
+        Employee changes = Employee.builder().firstName("Raja").build();
+
+        // when
+        sqlStatementCounter.reset();
+        Optional<Long> version = employeeRepository.updateFields(employee.getId(), changes, null);
+
+        // then
+        sqlStatementCounter.statements().assertUpdates(1).assertTotalAtMost(1);
+        assertThat(version).contains(1L);
+        assertThat(employeeRepository.updateFields(employee.getId(), changes, 0L)).isEmpty();
+        assertThat(employeeRepository.updateFields(employee.getId(), changes, 1L)).contains(2L);
+        assertThat(employeeRepository.updateFields(employee.getId(), Employee.builder().build(), 2L)).contains(2L);
+        assertThat(employeeRepository.updateFields(-1L, changes, null)).isEmpty();
+    }
+
+    // unit test that a single-row update leaves the other employees in the second-level cache
+    @DisplayName("unit test for update fields evicting only that employee")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void givenCachedEmployees_whenUpdateFields_thenOtherEmployeesStillCached(){
+        // given - committed, so both employees are in the second-level cache
+        Employee employee1 = Employee.builder()
+                .firstName("seetha")
+                .lastName("hy")
+                .email("seetha@gmail,com")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employee1));
+        try {
+            // when
+            employeeRepository.updateFields(employee.getId(), Employee.builder().firstName("Raja").build(), null);
+
+            // then
+            sqlStatementCounter.count(() -> employeeRepository.findById(employee1.getId()))
+                    .assertTotalAtMost(0);
+            sqlStatementCounter.count(() -> assertThat(employeeRepository.findById(employee.getId()).get().getFirstName())
+                            .isEqualTo("Raja"))
+                    .assertSelects(1);
+        } finally {
+            employeeRepository.deleteAllInBatch();
+        }
+    }
+
     // unit test to delete employee operation
     @DisplayName("unit test for delete employee operation")
     @Test
@@ -158,6 +245,77 @@ public class EmployeeRespositoryTests {
         assertThat(employeeOptional).isEmpty();
     }
 
+    // unit test to delete employee by id with a single statement
+    @DisplayName("unit test for delete employee by id operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenRemoveEmployee(){
+        // given 
+        employeeRepository.save(employee);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when  
+        sqlStatementCounter.reset();
+        employeeRepository.deleteEmployeeById(employee.getId());
+        Optional<Employee> employeeOptional = employeeRepository.findById(employee.getId());
+
+        // then  
+        assertThat(employeeOptional).isEmpty();
+        // one DELETE statement, no load of the entity first
+        sqlStatementCounter.statements().assertDeletes(1).assertSelectsAtMost(1);
+    }
+
+    // unit test that a single-row delete leaves the other employees in the second-level cache
+    @DisplayName("unit test for delete by id evicting only that employee")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void givenCachedEmployees_whenDeleteEmployeeById_thenOtherEmployeesStillCached(){
+        // given - committed, so both employees are in the second-level cache
+        Employee employee1 = Employee.builder()
+                .firstName("seetha")
+                .lastName("hy")
+                .email("seetha@gmail,com")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employee1));
+        try {
+            // when
+            employeeRepository.deleteEmployeeById(employee.getId());
+
+            // then
+            sqlStatementCounter.count(() -> employeeRepository.findById(employee1.getId()))
+                    .assertTotalAtMost(0);
+            sqlStatementCounter.count(() -> assertThat(employeeRepository.findById(employee.getId())).isEmpty())
+                    .assertSelects(1);
+        } finally {
+            employeeRepository.deleteAllInBatch();
+        }
+    }
+
+    // unit test that streaming the table for an export leaves the second-level cache alone
+    @DisplayName("unit test for stream all bypassing the second-level cache")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void givenEmployee_whenStreamAll_thenNotCached(){
+        // given
+        employeeRepository.save(employee);
+        Cache cache = entityManagerFactory.getCache();
+        cache.evictAll();
+        try {
+            // when
+            long streamed = new TransactionTemplate(transactionManager).execute(status -> {
+                try (Stream<Employee> employees = employeeRepository.streamAll()) {
+                    return employees.count();
+                }
+            });
+
+            // then
+            assertThat(streamed).isEqualTo(1);
+            assertThat(cache.contains(Employee.class, employee.getId())).isFalse();
+        } finally {
+            employeeRepository.deleteAllInBatch();
+        }
+    }
+
     // unit test with custom query using JPQL & index
     @DisplayName("unit test for custom query using JPQL & index")
     @Test
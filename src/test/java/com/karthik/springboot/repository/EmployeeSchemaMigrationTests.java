@@ -0,0 +1,82 @@
+package com.karthik.springboot.repository;
+
+import com.karthik.springboot.model.Employee;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// a database from before the Flyway migrations: the table ddl-auto=update created for the original entity
+// (IDENTITY id, no version column, no unique email, no employees_seq), with rows in it, when Flyway first runs
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class EmployeeSchemaMigrationTests {
+
+    @TestConfiguration
+    static class PreFlywaySchema {
+
+        @Bean
+        public FlywayMigrationStrategy preFlywaySchema() {
+            return flyway -> {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                // the DDL Hibernate's schema update generated for the original entity on H2
+                jdbcTemplate.execute("create table employees (id bigint generated by default as identity, "
+                        + "email varchar(255) not null, first_name varchar(255) not null, "
+                        + "last_name varchar(255) not null, primary key (id))");
+                jdbcTemplate.update("insert into employees (first_name, last_name, email) values "
+                        + "('Karthik', 'Pavan', 'karthik@gmail.com'), ('Raja', 'Rao', 'raja@gmail.com')");
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Flyway flyway;
+
+    @DisplayName("a pre-Flyway database is baselined at the original table and upgraded from there")
+    @Test
+    public void givenPreFlywaySchema_whenMigrated_thenUpgradedAndUsable(){
+        // given - migrated on startup
+
+        // when
+        List<String> applied = Arrays.stream(flyway.info().applied())
+                .map(MigrationInfo::getDescription)
+                .collect(Collectors.toList());
+        Employee saved = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Ravi")
+                .lastName("Teja")
+                .email("ravi@gmail.com")
+                .build());
+
+        // then
+        assertThat(applied).containsExactly("<< Flyway Baseline >>", "add version and id generator", "add employees name index");
+        assertThat(employeeRepository.findAll()).extracting(Employee::getVersion).containsOnly(0L);
+        assertThat(saved.getId()).isGreaterThan(jdbcTemplate.queryForObject(
+                "select max(id) from employees where email <> 'ravi@gmail.com'", Long.class));
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.karthik.springboot.search;
+
+import com.karthik.springboot.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSearchIndexTests {
+
+    private EmployeeSearchIndex searchIndex;
+
+    private static Employee employee(long id, String firstName, String lastName, String email){
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .version(0L)
+                .build();
+    }
+
+    private List<Long> ids(String query){
+        return searchIndex.search(query, 10).stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    public void setup(){
+        searchIndex = new EmployeeSearchIndex();
+        searchIndex.put(employee(1L, "Karthik", "Pavan", "karthik@gmail.com"));
+        searchIndex.put(employee(2L, "Raja", "Hp", "raja.karthikeyan@gmail.com"));
+        searchIndex.put(employee(3L, "Ramesh", "Karthi", "ramesh@yahoo.com"));
+    }
+
+    @DisplayName("whole-name and prefix matches rank above word prefixes and substrings")
+    @Test
+    public void givenIndexedEmployees_whenSearch_thenRanked(){
+        // when
+        List<Long> karthik = ids("karthik");
+        List<Long> thi = ids("thi");
+
+        // then
+        assertThat(karthik).containsExactly(1L, 2L);
+        assertThat(thi).containsExactly(2L, 1L, 3L);
+        assertThat(ids("KARTHIK pavan")).containsExactly(1L);
+        assertThat(ids("hotmail")).isEmpty();
+    }
+
+    @DisplayName("one- and two-character queries match the start of a word")
+    @Test
+    public void givenShortQuery_whenSearch_thenWordPrefixes(){
+        // when
+        List<Long> ra = ids("ra");
+
+        // then
+        assertThat(ra).containsExactly(2L, 3L);
+        assertThat(ids("k")).containsExactly(1L, 2L, 3L);
+        assertThat(ids("ah")).isEmpty();
+    }
+
+    @DisplayName("updates, partial updates and deletes are visible to the next search")
+    @Test
+    public void givenChanges_whenSearch_thenIndexCurrent(){
+        // when
+        searchIndex.put(employee(1L, "Kiran", "Pavan", "kiran@gmail.com"));
+        searchIndex.merge(2L, Employee.builder().lastName("Kumar").build());
+        searchIndex.remove(3L);
+
+        // then
+        assertThat(ids("karthik")).containsExactly(2L);
+        assertThat(ids("kiran")).containsExactly(1L);
+        assertThat(ids("kumar")).containsExactly(2L);
+        assertThat(ids("hp")).isEmpty();
+        assertThat(ids("ramesh")).isEmpty();
+        assertThat(searchIndex.search("kumar", 1)).singleElement()
+                .satisfies(employee -> {
+                    assertThat(employee.getFirstName()).isEqualTo("Raja");
+                    assertThat(employee.getVersion()).isEqualTo(1L);
+                });
+        assertThat(searchIndex.size()).isEqualTo(2);
+    }
+
+    @DisplayName("only the top limit results are returned")
+    @Test
+    public void givenManyMatches_whenSearchWithLimit_thenTopK(){
+        // given
+        for (long id = 10; id < 100; id++) {
+            searchIndex.put(employee(id, "Karthik" + id, "Pavan", "karthik" + id + "@gmail.com"));
+        }
+
+        // when
+        List<Employee> top = searchIndex.search("karthik", 3);
+
+        // then
+        assertThat(top).extracting(Employee::getId).containsExactly(1L, 10L, 11L);
+    }
+}
@@ -0,0 +1,167 @@
+package com.karthik.springboot.service;
+
+import com.karthik.springboot.config.BatchingConfig;
+import com.karthik.springboot.config.CacheConfig;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import com.karthik.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {CacheConfig.class, BatchingConfig.class, EmployeeServiceImpl.class, EmployeeSearchIndex.class})
+public class EmployeeServiceCachingTests {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).clear();
+        cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).clear();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build();
+    }
+
+    @DisplayName("repeated getEmployeeById is served from the cache")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeByIdTwice_thenRepositoryCalledOnce(){
+        // given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> cachedEmployee = employeeService.getEmployeeById(1L);
+
+        // then
+        assertThat(cachedEmployee).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @DisplayName("a cached miss is replaced when the employee is created")
+    @Test
+    public void givenCachedMiss_whenSaveEmployee_thenGetEmployeeByIdReturnsEmployee(){
+        // given
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        employeeService.getEmployeeById(1L);
+        assertThat(employeeService.getEmployeeById(1L)).isEmpty();
+
+        // when
+        employeeService.saveEmployee(employee);
+
+        // then
+        assertThat(employeeService.getEmployeeById(1L)).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @DisplayName("deleteEmployee evicts the cached employee")
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenNextGetGoesToRepository(){
+        // given
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        // when
+        employeeService.deleteEmployee(1L);
+        employeeService.getEmployeeById(1L);
+
+        // then
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    @DisplayName("deleteEmployees evicts only the deleted ids")
+    @Test
+    public void givenCachedEmployees_whenDeleteEmployees_thenOnlyDeletedEvicted(){
+        // given
+        Employee other = Employee.builder()
+                .id(2L)
+                .firstName("Raja")
+                .lastName("Rao")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.findById(2L)).willReturn(Optional.of(other));
+        given(employeeRepository.deleteByIdIn(List.of(1L))).willReturn(1);
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(2L);
+        cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).put(1L, new byte[0]);
+        cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).put(2L, new byte[0]);
+
+        // when
+        employeeService.deleteEmployees(List.of(1L));
+
+        // then
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(2L)).isNotNull();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).get(2L)).isNotNull();
+    }
+
+    @DisplayName("patchEmployee evicts the encoded responses of the employee")
+    @Test
+    public void givenEncodedResponse_whenPatchEmployee_thenResponseEvicted(){
+        // given
+        given(employeeRepository.updateFields(eq(1L), any(), isNull())).willReturn(Optional.of(1L));
+        cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).put(1L, new byte[0]);
+
+        // when
+        employeeService.patchEmployee(1L, Employee.builder().firstName("Raja").build(), null);
+
+        // then
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEE_RESPONSES_CACHE).get(1L)).isNull();
+    }
+
+    @DisplayName("saveAll evicts only the cached misses of the created ids")
+    @Test
+    public void givenCachedEmployeeAndMiss_whenSaveAll_thenOnlyMissEvicted(){
+        // given
+        Employee created = Employee.builder()
+                .id(2L)
+                .firstName("Raja")
+                .lastName("Rao")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty(), Optional.of(created));
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(2L);
+
+        // when
+        employeeService.saveAll(List.of(created));
+
+        // then
+        assertThat(employeeService.getEmployeeById(1L)).contains(employee);
+        assertThat(employeeService.getEmployeeById(2L)).contains(created);
+        verify(employeeRepository, times(1)).findById(1L);
+        verify(employeeRepository, times(2)).findById(2L);
+    }
+}
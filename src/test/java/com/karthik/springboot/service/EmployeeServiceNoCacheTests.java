@@ -0,0 +1,62 @@
+package com.karthik.springboot.service;
+
+import com.karthik.springboot.config.BatchingConfig;
+import com.karthik.springboot.config.CacheConfig;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import com.karthik.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// spring.cache.type=none, as for the servlet side of the load comparison in employee-reactive
+@SpringBootTest(classes = {CacheConfig.class, BatchingConfig.class, EmployeeServiceImpl.class, EmployeeSearchIndex.class},
+        properties = "spring.cache.type=none")
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class EmployeeServiceNoCacheTests {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DisplayName("with caching off every getEmployeeById goes to the repository")
+    @Test
+    public void givenCacheTypeNone_whenGetEmployeeByIdTwice_thenRepositoryCalledTwice(){
+        // given
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Karthik")
+                .lastName("Pavan")
+                .email("karthik@gmail.com")
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> secondEmployee = employeeService.getEmployeeById(1L);
+
+        // then
+        assertThat(secondEmployee).contains(employee);
+        assertThat(cacheManager).isInstanceOf(NoOpCacheManager.class);
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+}
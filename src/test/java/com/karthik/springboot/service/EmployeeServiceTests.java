@@ -1,8 +1,12 @@
 package com.karthik.springboot.service;
 
-import com.karthik.springboot.exception.ResourceNotFoundException;
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.exception.EmployeeVersionMismatchException;
 import com.karthik.springboot.model.Employee;
 import com.karthik.springboot.repository.EmployeeRepository;
+import com.karthik.springboot.search.EmployeeSearchIndex;
+import com.karthik.springboot.service.impl.EmployeeBatchLoader;
 import com.karthik.springboot.service.impl.EmployeeServiceImpl;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,16 +16,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 import org.mockito.InjectMocks;
+import org.springframework.cache.CacheManager;
 import org.mockito.Mock;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTests {
@@ -29,6 +41,15 @@ public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeSearchIndex searchIndex;
+
+    @Mock
+    private EmployeeBatchLoader batchLoader;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -51,10 +72,7 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
         // given  
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         System.out.println(employeeRepository);
         System.out.println(employeeService);
@@ -72,19 +90,71 @@ public class EmployeeServiceTests {
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException(){
         // given  
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("could not execute statement",
+                        new ConstraintViolationException("Duplicate entry", null, "employees.uk_employees_email")));
 
         System.out.println(employeeRepository);
         System.out.println(employeeService);
 
         // when  
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+        org.junit.jupiter.api.Assertions.assertThrows(EmailAlreadyExistsException.class, () -> {
             employeeService.saveEmployee(employee);
         });
 
         // then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    // JUnit test to saveAll method
+    @DisplayName("JUnit test to saveAll method which reports conflicts per row")
+    @Test
+    public void givenEmployeesWithTakenAndRepeatedEmails_whenSaveAll_thenReportConflicts(){
+        // given
+        Employee newEmployee = Employee.builder()
+                .firstName("Raja")
+                .lastName("HY")
+                .email("raja@gmail.com")
+                .build();
+        Employee repeatedEmployee = Employee.builder()
+                .firstName("Raja")
+                .lastName("K")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.findExistingEmails(List.of("karthik@gmail.com", "raja@gmail.com")))
+                .willReturn(List.of("karthik@gmail.com"));
+        given(employeeRepository.save(newEmployee)).willAnswer(invocation -> {
+            newEmployee.setId(2L);
+            return newEmployee;
+        });
+
+        // when
+        List<BulkCreateResult> results = employeeService.saveAll(List.of(employee, newEmployee, repeatedEmployee));
+
+        // then
+        assertThat(results).extracting(BulkCreateResult::getStatus).containsExactly(
+                BulkCreateResult.Status.CONFLICT, BulkCreateResult.Status.CREATED, BulkCreateResult.Status.CONFLICT);
+        assertThat(results.get(1).getId()).isEqualTo(2L);
+        verify(employeeRepository, times(1)).save(any(Employee.class));
+    }
+
+    // JUnit test to saveAll method
+    @DisplayName("JUnit test to saveAll method when another insert takes an email after the check")
+    @Test
+    public void givenEmailTakenAfterCheck_whenSaveAll_thenThrowsException(){
+        // given
+        given(employeeRepository.findExistingEmails(List.of("karthik@gmail.com"))).willReturn(List.of());
+        willThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", null, "employees.uk_employees_email")))
+                .given(employeeRepository).flush();
+
+        // when
+        org.junit.jupiter.api.Assertions.assertThrows(EmailAlreadyExistsException.class, () -> {
+            employeeService.saveAll(List.of(employee));
+        });
+
+        // then
+        verify(employeeRepository, times(1)).save(employee);
     }
 
     // JUnit test to getAllEmployees method
@@ -133,6 +203,45 @@ public class EmployeeServiceTests {
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    // JUnit test to getEmployees method
+    @DisplayName("JUnit test to getEmployees keyset page method")
+    @Test
+    public void givenAfterIdAndLimit_whenGetEmployees_thenReturnSlice(){
+        // given
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 20)))
+                .willReturn(new SliceImpl<>(List.of(employee)));
+
+        // when
+        Slice<Employee> employeePage = employeeService.getEmployees(0L, 20);
+
+        // then
+        assertThat(employeePage.getContent()).hasSize(1);
+        assertThat(employeePage.hasNext()).isFalse();
+    }
+
+    // JUnit test to exportEmployees method
+    @DisplayName("JUnit test to exportEmployees method")
+    @Test
+    public void givenEmployeesStream_whenExportEmployees_thenConsumeAndDetachEachEmployee(){
+        // given
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Raja")
+                .lastName("HY")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee1));
+
+        // when
+        List<Employee> exported = new ArrayList<>();
+        employeeService.exportEmployees(exported::add);
+
+        // then
+        assertThat(exported).containsExactly(employee, employee1);
+        verify(employeeRepository).detach(employee);
+        verify(employeeRepository).detach(employee1);
+    }
+
     // JUnit test to getEmployeeById method
     @DisplayName("JUnit test to getEmployeeById method")
     @Test
@@ -148,6 +257,63 @@ public class EmployeeServiceTests {
 
     }
 
+    // JUnit test to getEmployeeById method with batching on
+    @DisplayName("JUnit test to getEmployeeById method (batched)")
+    @Test
+    public void givenBatchingEnabled_whenGetEmployeeById_thenLoadThroughBatchLoader(){
+        // given
+        given(batchLoader.isEnabled()).willReturn(true);
+        given(batchLoader.load(1L)).willReturn(Optional.of(employee));
+
+        // when
+        Optional<Employee> savedEmployee = employeeService.getEmployeeById(1L);
+
+        // then
+        assertThat(savedEmployee).contains(employee);
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    // JUnit test to getEmployeesByIds method
+    @DisplayName("JUnit test to getEmployeesByIds method")
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenReturnFoundInRequestOrder(){
+        // given
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Raja")
+                .lastName("Hp")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.findAllById(List.of(2L, 7L, 1L))).willReturn(List.of(employee, employee1));
+
+        // when
+        List<Employee> employees = employeeService.getEmployeesByIds(List.of(2L, 7L, 1L, 2L));
+
+        // then
+        assertThat(employees).containsExactly(employee1, employee);
+    }
+
+    // JUnit test to getEmployeesByIds method with more ids than fit in one IN list
+    @DisplayName("JUnit test to getEmployeesByIds method (chunked)")
+    @Test
+    public void givenManyIds_whenGetEmployeesByIds_thenQueryInChunks(){
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        given(employeeRepository.findAllById(any())).willReturn(List.of());
+
+        // when
+        List<Employee> employees = employeeService.getEmployeesByIds(ids);
+
+        // then
+        assertThat(employees).isEmpty();
+        verify(employeeRepository).findAllById(ids.subList(0, 1000));
+        verify(employeeRepository).findAllById(ids.subList(1000, 2000));
+        verify(employeeRepository).findAllById(ids.subList(2000, 2500));
+    }
+
     // JUnit test to updateEmployee method
     @DisplayName("JUnit test to updateEmployee method")
     @Test
@@ -164,6 +330,105 @@ public class EmployeeServiceTests {
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Raja");
     }
 
+    // JUnit test to updateEmployee by id method
+    @DisplayName("JUnit test to updateEmployee by id method")
+    @Test
+    public void givenExistingId_whenUpdateEmployeeById_thenReturnEmployeeWithId(){
+        // given
+        Employee changes = Employee.builder()
+                .firstName("Raja")
+                .lastName("HY")
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.updateFields(1L, changes, null)).willReturn(Optional.of(1L));
+
+        // when
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, changes, null);
+
+        // then
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getId()).isEqualTo(1L);
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    // JUnit test to updateEmployee by id method without a version condition
+    @DisplayName("JUnit test to updateEmployee by id method (unconditional)")
+    @Test
+    public void givenNoVersion_whenUpdateEmployeeById_thenReturnVersionWritten(){
+        // given
+        given(employeeRepository.updateFields(1L, employee, null)).willReturn(Optional.of(5L));
+
+        // when
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, null);
+
+        // then
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(5L);
+        verify(employeeRepository, never()).findVersionById(anyLong());
+        verify(searchIndex).put(updatedEmployee.get());
+    }
+
+    // JUnit test to updateEmployee by id method
+    @DisplayName("JUnit test to updateEmployee by id method (missing employee)")
+    @Test
+    public void givenMissingId_whenUpdateEmployeeById_thenReturnEmpty(){
+        // given
+        given(employeeRepository.updateFields(1L, employee, null)).willReturn(Optional.empty());
+
+        // when
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, null);
+
+        // then
+        assertThat(updatedEmployee).isEmpty();
+    }
+
+    // JUnit test to updateEmployee by id method with a version condition
+    @DisplayName("JUnit test to updateEmployee by id method (stale version)")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployeeById_thenThrowsException(){
+        // given
+        given(employeeRepository.updateFields(1L, employee, 2L)).willReturn(Optional.empty());
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(3L));
+
+        // when
+        org.junit.jupiter.api.Assertions.assertThrows(EmployeeVersionMismatchException.class, () -> {
+            employeeService.updateEmployee(1L, employee, 2L);
+        });
+    }
+
+    // JUnit test to updateEmployee by id method with a version condition
+    @DisplayName("JUnit test to updateEmployee by id method (current version)")
+    @Test
+    public void givenCurrentVersion_whenUpdateEmployeeById_thenReturnNextVersion(){
+        // given
+        given(employeeRepository.updateFields(1L, employee, 3L)).willReturn(Optional.of(4L));
+
+        // when
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee, 3L);
+
+        // then
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(4L);
+    }
+
+    // JUnit test to patchEmployee method
+    @DisplayName("JUnit test to patchEmployee method")
+    @Test
+    public void givenChangedFields_whenPatchEmployee_thenReturnTrue(){
+        // given
+        Employee changes = Employee.builder()
+                .email("raja@gmail.com")
+                .build();
+        given(employeeRepository.updateFields(1L, changes, null)).willReturn(Optional.of(2L));
+
+        // when
+        boolean patched = employeeService.patchEmployee(1L, changes, null);
+
+        // then
+        assertThat(patched).isTrue();
+        verify(searchIndex).merge(1L, changes);
+    }
+
     // JUnit test to deleteEmployee method
     @DisplayName("JUnit test to deleteEmployee method")
     @Test
@@ -171,12 +436,77 @@ public class EmployeeServiceTests {
         // given  
         long employeeId = 1L;
 
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
         // when  
-        employeeService.deleteEmployee(employeeId);
+        boolean deleted = employeeService.deleteEmployee(employeeId);
 
         // then 
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, times(1)).deleteEmployeeById(employeeId);
+        verify(employeeRepository, never()).findById(employeeId);
+        verify(searchIndex).remove(employeeId);
+    }
+
+    // JUnit test to deleteEmployee method
+    @DisplayName("JUnit test to deleteEmployee method (missing employee)")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnFalse(){
+        // given
+        long employeeId = 1L;
+
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(0);
+
+        // when
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        // then
+        assertThat(deleted).isFalse();
+        verifyNoInteractions(searchIndex);
+    }
+
+    // JUnit test to deleteEmployees method
+    @DisplayName("JUnit test to deleteEmployees method")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount(){
+        // given
+        List<Long> employeeIds = List.of(1L, 2L, 3L);
+
+        given(employeeRepository.deleteByIdIn(employeeIds)).willReturn(2);
+
+        // when
+        int deleted = employeeService.deleteEmployees(employeeIds);
+
+        // then
+        assertThat(deleted).isEqualTo(2);
+    }
+
+    // JUnit test to searchEmployees method
+    @DisplayName("JUnit test to searchEmployees method")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenAnsweredFromIndex(){
+        // given
+        given(searchIndex.search("karth", 10)).willReturn(List.of(employee));
+
+        // when
+        List<Employee> employees = employeeService.searchEmployees("karth", 10);
+
+        // then
+        assertThat(employees).containsExactly(employee);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // JUnit test to getEmployeeByEmail method
+    @DisplayName("JUnit test to getEmployeeByEmail method")
+    @Test
+    public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject(){
+        // given
+        given(employeeRepository.findByEmail("karthik@gmail.com")).willReturn(Optional.of(employee));
+
+        // when
+        Optional<Employee> savedEmployee = employeeService.getEmployeeByEmail("karthik@gmail.com");
+
+        // then
+        assertThat(savedEmployee).contains(employee);
     }
 }
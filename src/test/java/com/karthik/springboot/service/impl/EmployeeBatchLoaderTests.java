@@ -0,0 +1,102 @@
+package com.karthik.springboot.service.impl;
+
+import com.karthik.springboot.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmployeeBatchLoaderTests {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    // every IN list the loader was asked for
+    private final List<List<Long>> queries = new CopyOnWriteArrayList<>();
+
+    private final Function<List<Long>, List<Employee>> findAllById = ids -> {
+        queries.add(ids);
+        return ids.stream()
+                .filter(id -> id % 2 == 1)
+                .map(id -> Employee.builder().id(id).firstName("Karthik" + id).lastName("Pavan").email("karthik" + id + "@gmail.com").build())
+                .collect(Collectors.toList());
+    };
+
+    @AfterEach
+    public void tearDown(){
+        callers.shutdownNow();
+    }
+
+    private List<Future<Optional<Employee>>> loadConcurrently(EmployeeBatchLoader batchLoader, long... ids){
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        for (long id : ids) {
+            results.add(callers.submit(() -> batchLoader.load(id)));
+        }
+        return results;
+    }
+
+    @DisplayName("lookups within the window share one query and each gets its own row")
+    @Test
+    public void givenLookupsWithinWindow_whenLoad_thenOneQuery() throws Exception{
+        // given
+        EmployeeBatchLoader batchLoader = new EmployeeBatchLoader(true, findAllById, Duration.ofMillis(500), 100);
+
+        // when
+        List<Future<Optional<Employee>>> results = loadConcurrently(batchLoader, 1L, 2L, 3L, 3L);
+
+        // then
+        assertThat(results.get(0).get(5, TimeUnit.SECONDS)).hasValueSatisfying(employee -> assertThat(employee.getId()).isEqualTo(1L));
+        assertThat(results.get(1).get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(results.get(2).get(5, TimeUnit.SECONDS)).hasValueSatisfying(employee -> assertThat(employee.getId()).isEqualTo(3L));
+        assertThat(results.get(3).get(5, TimeUnit.SECONDS)).hasValueSatisfying(employee -> assertThat(employee.getId()).isEqualTo(3L));
+        assertThat(queries).singleElement().satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder(1L, 2L, 3L));
+    }
+
+    @DisplayName("a full batch is sent without waiting for the window")
+    @Test
+    public void givenFullBatch_whenLoad_thenSentImmediately() throws Exception{
+        // given
+        EmployeeBatchLoader batchLoader = new EmployeeBatchLoader(true, findAllById, Duration.ofMinutes(1), 2);
+
+        // when
+        List<Future<Optional<Employee>>> results = loadConcurrently(batchLoader, 1L, 3L);
+
+        // then
+        for (Future<Optional<Employee>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+        }
+        assertThat(queries).hasSize(1);
+    }
+
+    @DisplayName("a failed query fails every lookup in its batch")
+    @Test
+    public void givenFailingQuery_whenLoad_thenAllFail() throws Exception{
+        // given
+        EmployeeBatchLoader batchLoader = new EmployeeBatchLoader(true, ids -> {
+            throw new IllegalStateException("database unavailable");
+        }, Duration.ofMillis(200), 100);
+
+        // when
+        List<Future<Optional<Employee>>> results = loadConcurrently(batchLoader, 1L, 2L);
+
+        // then
+        for (Future<Optional<Employee>> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("database unavailable");
+        }
+    }
+}
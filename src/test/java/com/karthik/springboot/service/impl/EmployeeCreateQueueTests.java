@@ -0,0 +1,174 @@
+package com.karthik.springboot.service.impl;
+
+import com.karthik.springboot.dto.BulkCreateResult;
+import com.karthik.springboot.dto.CreateStatus;
+import com.karthik.springboot.exception.CreateQueueFullException;
+import com.karthik.springboot.exception.EmailAlreadyExistsException;
+import com.karthik.springboot.model.Employee;
+import com.karthik.springboot.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EmployeeCreateQueueTests {
+
+    @TempDir
+    Path directory;
+
+    private EmployeeService employeeService;
+
+    private EmployeeCreateQueue createQueue;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private static Employee employee(String name){
+        return Employee.builder().firstName(name).lastName("Pavan").email(name + "@gmail.com").build();
+    }
+
+    // saveAll that creates every row it is given
+    private List<BulkCreateResult> createAll(List<Employee> employees){
+        List<BulkCreateResult> results = new ArrayList<>();
+        for (int index = 0; index < employees.size(); index++) {
+            Employee employee = employees.get(index);
+            employee.setId(ids.incrementAndGet());
+            results.add(BulkCreateResult.created(index, employee));
+        }
+        return results;
+    }
+
+    private EmployeeCreateQueue startQueue(int capacity, int batchSize, Duration maxDelay) throws Exception{
+        EmployeeCreateQueue queue = new EmployeeCreateQueue(true, employeeService, directory.resolve("creates.log"),
+                capacity, batchSize, maxDelay, Duration.ofMillis(50), Duration.ofMinutes(1));
+        queue.start();
+        return queue;
+    }
+
+    private CreateStatus awaitFinished(String ticket) throws InterruptedException{
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (createQueue.getStatus(ticket).orElseThrow().getStatus() == CreateStatus.Status.PENDING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+        return createQueue.getStatus(ticket).orElseThrow();
+    }
+
+    @BeforeEach
+    public void setup(){
+        employeeService = mock(EmployeeService.class);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception{
+        if (createQueue != null) {
+            createQueue.close(Duration.ZERO);
+        }
+    }
+
+    @DisplayName("queued creates are written together in one saveAll")
+    @Test
+    public void givenQueuedCreates_whenBatchFills_thenOneTransaction() throws Exception{
+        // given
+        given(employeeService.saveAll(anyList())).willAnswer(invocation -> createAll(invocation.getArgument(0)));
+        createQueue = startQueue(100, 3, Duration.ofSeconds(5));
+
+        // when
+        List<CreateStatus> accepted = new ArrayList<>();
+        for (String name : List.of("karthik", "raja", "ramesh")) {
+            accepted.add(createQueue.submit(employee(name)));
+        }
+
+        // then
+        assertThat(accepted).allSatisfy(status -> assertThat(status.getStatus()).isEqualTo(CreateStatus.Status.PENDING));
+        for (CreateStatus status : accepted) {
+            CreateStatus finished = awaitFinished(status.getTicket());
+            assertThat(finished.getStatus()).isEqualTo(CreateStatus.Status.CREATED);
+            assertThat(finished.getId()).isNotNull();
+        }
+        verify(employeeService, times(1)).saveAll(anyList());
+        assertThat(createQueue.pending()).isZero();
+        assertThat(Files.size(directory.resolve("creates.log"))).isZero();
+    }
+
+    @DisplayName("acknowledged creates that were not written are written after a restart")
+    @Test
+    public void givenDatabaseDown_whenRestarted_thenLoggedCreatesReplayed() throws Exception{
+        // given
+        given(employeeService.saveAll(anyList())).willThrow(new DataAccessResourceFailureException("database unavailable"));
+        createQueue = startQueue(100, 10, Duration.ofMillis(1));
+        String ticket = createQueue.submit(employee("karthik")).getTicket();
+        createQueue.close(Duration.ofMillis(200));
+
+        // when
+        employeeService = mock(EmployeeService.class);
+        given(employeeService.saveAll(anyList())).willAnswer(invocation -> createAll(invocation.getArgument(0)));
+        createQueue = startQueue(100, 10, Duration.ofMillis(1));
+
+        // then
+        assertThat(awaitFinished(ticket).getStatus()).isEqualTo(CreateStatus.Status.CREATED);
+        verify(employeeService).saveAll(argThat(employees -> employees.size() == 1
+                && employees.get(0).getEmail().equals("karthik@gmail.com")));
+    }
+
+    @DisplayName("an email taken by another insert during a batch fails only that create")
+    @Test
+    public void givenEmailTakenDuringBatch_whenWritten_thenOnlyThatCreateConflicts() throws Exception{
+        // given
+        given(employeeService.saveAll(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.stream().anyMatch(employee -> employee.getEmail().equals("raja@gmail.com"))) {
+                throw new EmailAlreadyExistsException("Employee already exist with one of the given emails");
+            }
+            return createAll(employees);
+        });
+        createQueue = startQueue(100, 2, Duration.ofSeconds(5));
+
+        // when
+        String created = createQueue.submit(employee("karthik")).getTicket();
+        String conflicting = createQueue.submit(employee("raja")).getTicket();
+
+        // then
+        assertThat(awaitFinished(created).getStatus()).isEqualTo(CreateStatus.Status.CREATED);
+        assertThat(awaitFinished(conflicting).getStatus()).isEqualTo(CreateStatus.Status.CONFLICT);
+        assertThat(createQueue.pending()).isZero();
+    }
+
+    @DisplayName("a full queue turns creates away instead of growing")
+    @Test
+    public void givenFullQueue_whenSubmit_thenRejected() throws Exception{
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveAll(anyList())).willAnswer(invocation -> {
+            release.await();
+            return createAll(invocation.getArgument(0));
+        });
+        createQueue = startQueue(2, 10, Duration.ofMillis(1));
+        createQueue.submit(employee("karthik"));
+        createQueue.submit(employee("raja"));
+
+        // when / then
+        assertThatThrownBy(() -> createQueue.submit(employee("ramesh")))
+                .isInstanceOf(CreateQueueFullException.class);
+        release.countDown();
+    }
+}
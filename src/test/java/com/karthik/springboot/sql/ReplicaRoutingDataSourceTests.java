@@ -0,0 +1,155 @@
+package com.karthik.springboot.sql;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// three embedded H2 databases, each with a one-row table naming itself
+public class ReplicaRoutingDataSourceTests {
+
+    private ReplicaRoutingDataSource routing;
+
+    @AfterEach
+    void tearDown(){
+        routing.close();
+    }
+
+    private HikariDataSource database(String name){
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+        jdbcTemplate.execute("delete from node");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private ReplicaRoutingDataSource routing(ReplicaRoutingDataSource.Balancing balancing, Duration readYourWrites,
+                                             HikariDataSource... replicas){
+        routing = new ReplicaRoutingDataSource(database("primary"), List.of(replicas), balancing,
+                readYourWrites, Duration.ofMinutes(1));
+        return routing;
+    }
+
+    private static String node(ReplicaRoutingDataSource routing, boolean readOnly){
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(routing).queryForObject("select name from node", String.class));
+    }
+
+    @DisplayName("read-only transactions go round-robin over the replicas, the rest to the primary")
+    @Test
+    public void givenTwoReplicas_whenReadOnly_thenRoundRobin(){
+        // given
+        routing(ReplicaRoutingDataSource.Balancing.ROUND_ROBIN, Duration.ZERO,
+                database("replica-a"), database("replica-b"));
+
+        // when
+        List<String> reads = List.of(node(routing, true), node(routing, true), node(routing, true));
+
+        // then
+        assertThat(reads).containsExactly("replica-a", "replica-b", "replica-a");
+        assertThat(node(routing, false)).isEqualTo("primary");
+        assertThat(new JdbcTemplate(routing).queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @DisplayName("least-connections skips a replica that is busy")
+    @Test
+    public void givenBusyReplica_whenReadOnly_thenLeastConnections() throws Exception{
+        // given
+        HikariDataSource busy = database("replica-a");
+        routing(ReplicaRoutingDataSource.Balancing.LEAST_CONNECTIONS, Duration.ZERO, busy, database("replica-b"));
+
+        // when
+        List<String> reads = new ArrayList<>();
+        try (Connection held = busy.getConnection()) {
+            reads.add(node(routing, true));
+            reads.add(node(routing, true));
+        }
+
+        // then
+        assertThat(reads).containsExactly("replica-b", "replica-b");
+    }
+
+    private static void write(ReplicaRoutingDataSource routing){
+        new TransactionTemplate(new DataSourceTransactionManager(routing)).executeWithoutResult(status ->
+                new JdbcTemplate(routing).update("update node set name = name"));
+    }
+
+    @DisplayName("a client's reads stay on the primary for the read-your-writes window after its write")
+    @Test
+    public void givenRecentWrite_whenReadOnly_thenPrimaryUntilWindowEnds() throws Exception{
+        // given
+        routing(ReplicaRoutingDataSource.Balancing.ROUND_ROBIN, Duration.ofMillis(300), database("replica-a"));
+        AtomicLong handedBack = new AtomicLong();
+        routing.bind(new ReplicaRoutingDataSource.Client(0, handedBack::set));
+
+        // when
+        write(routing);
+        String duringWindow = node(routing, true);
+        Thread.sleep(400);
+        String afterWindow = node(routing, true);
+        routing.unbind();
+
+        // then
+        assertThat(duringWindow).isEqualTo("primary");
+        assertThat(afterWindow).isEqualTo("replica-a");
+        assertThat(handedBack.get()).isPositive();
+    }
+
+    @DisplayName("a write by one client does not send another client's reads to the primary")
+    @Test
+    public void givenWriteByClientA_whenClientBReads_thenReplica(){
+        // given
+        routing(ReplicaRoutingDataSource.Balancing.ROUND_ROBIN, Duration.ofMinutes(1), database("replica-a"));
+        AtomicLong clientA = new AtomicLong();
+        routing.bind(new ReplicaRoutingDataSource.Client(0, clientA::set));
+        write(routing);
+        routing.unbind();
+
+        // when
+        routing.bind(new ReplicaRoutingDataSource.Client(0, millis -> {}));
+        String clientBRead = node(routing, true);
+        routing.unbind();
+        routing.bind(new ReplicaRoutingDataSource.Client(clientA.get(), millis -> {}));
+        String clientARead = node(routing, true);
+        routing.unbind();
+        String backgroundRead = node(routing, true);
+
+        // then
+        assertThat(clientBRead).isEqualTo("replica-a");
+        assertThat(clientARead).isEqualTo("primary");
+        assertThat(backgroundRead).isEqualTo("replica-a");
+    }
+
+    @DisplayName("an unreachable replica falls back to the primary and is skipped afterwards")
+    @Test
+    public void givenUnreachableReplica_whenReadOnly_thenPrimary(){
+        // given
+        HikariDataSource unreachable = new HikariDataSource();
+        unreachable.setJdbcUrl("jdbc:h2:tcp://localhost:1/unreachable");
+        unreachable.setConnectionTimeout(250);
+        unreachable.setInitializationFailTimeout(-1);
+        routing(ReplicaRoutingDataSource.Balancing.ROUND_ROBIN, Duration.ZERO, unreachable, database("replica-b"));
+
+        // when
+        List<String> reads = List.of(node(routing, true), node(routing, true), node(routing, true));
+
+        // then
+        assertThat(reads).containsExactly("primary", "replica-b", "replica-b");
+    }
+}
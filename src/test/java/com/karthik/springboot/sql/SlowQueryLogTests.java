@@ -0,0 +1,75 @@
+package com.karthik.springboot.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class SlowQueryLogTests {
+
+    private static void execute(SlowQueryLog slowQueryLog, String sql){
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setSuccess(true);
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        slowQueryLog.beforeQuery(execInfo, queries);
+        slowQueryLog.afterQuery(execInfo, queries);
+    }
+
+    @DisplayName("literals and IN lists are replaced, identifiers are kept")
+    @Test
+    public void givenSqlWithLiterals_whenNormalize_thenRedacted(){
+        // when
+        String shape = SlowQueryLog.normalize("select employee0_.id as id1_0_ from employees employee0_\n"
+                + " where employee0_.email = 'o''brien@gmail.com' and employee0_.id IN (1, 2, 3) and employee0_.version > -2");
+
+        // then
+        assertThat(shape).isEqualTo("select employee0_.id as id1_0_ from employees employee0_"
+                + " where employee0_.email = ? and employee0_.id in (?...) and employee0_.version > ?");
+    }
+
+    @DisplayName("statements over the threshold are logged by shape and aggregated")
+    @Test
+    public void givenSlowStatement_whenExecuted_thenLoggedAndAggregated(CapturedOutput output){
+        // given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ZERO, 0, 10, Runnable::run);
+
+        // when
+        execute(slowQueryLog, "select * from employees where email = 'karthik@gmail.com'");
+        execute(slowQueryLog, "select * from employees where email = 'hp@gmail.com'");
+
+        // then
+        assertThat(output).contains("slow query").contains("select * from employees where email = ?");
+        assertThat(output).doesNotContain("karthik@gmail.com");
+        assertThat(slowQueryLog.summaries()).singleElement()
+                .satisfies(summary -> {
+                    assertThat(summary.getShape()).isEqualTo("select * from employees where email = ?");
+                    assertThat(summary.getCount()).isEqualTo(2);
+                });
+    }
+
+    @DisplayName("fast statements are only aggregated, and shapes beyond the cap fall into (other)")
+    @Test
+    public void givenFastStatements_whenExecuted_thenNotLogged(CapturedOutput output){
+        // given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofHours(1), 0, 1, Runnable::run);
+
+        // when
+        execute(slowQueryLog, "select * from employees where id = ?");
+        execute(slowQueryLog, "insert into employees (email, id) values (?, ?)");
+
+        // then
+        assertThat(output).doesNotContain("slow query").doesNotContain("sampled query");
+        assertThat(slowQueryLog.summaries())
+                .extracting(QueryShapeStats.Summary::getShape)
+                .containsExactlyInAnyOrder("select * from employees where id = ?", SlowQueryLog.OTHER_SHAPE);
+    }
+}
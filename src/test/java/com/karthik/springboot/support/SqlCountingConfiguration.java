@@ -0,0 +1,41 @@
+package com.karthik.springboot.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+// @Import(SqlCountingConfiguration.class) and autowire SqlStatementCounter; works in slices such as
+// @DataJpaTest as well as @SpringBootTest, where it joins the slow-query log's proxy
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlCountingConfiguration {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor(ObjectProvider<SqlStatementCounter> sqlStatementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ProxyDataSource) {
+                    ((ProxyDataSource) bean).addListener(sqlStatementCounter.getObject());
+                    return bean;
+                }
+                if (bean instanceof DataSource) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(sqlStatementCounter.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.karthik.springboot.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// records the SQL of every statement executed after reset(); a JDBC batch counts as one statement.
+// Not bound to a thread (MockMvc and service calls run on the test thread anyway), so tests using it
+// must not run statements concurrently.
+//
+//   sqlStatementCounter.reset();
+//   mockMvc.perform(get("/api/employees/{id}", id));
+//   sqlStatementCounter.statements().assertSelectsAtMost(1);
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private volatile List<String> recording;
+
+    private volatile long startedNanos;
+
+    public void reset() {
+        startedNanos = System.nanoTime();
+        recording = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    // statements since reset(), and the wall-clock time since then
+    public SqlStatements statements() {
+        List<String> statements = recording;
+        if (statements == null) {
+            throw new IllegalStateException("reset() was not called");
+        }
+        synchronized (statements) {
+            return new SqlStatements(new ArrayList<>(statements), System.nanoTime() - startedNanos);
+        }
+    }
+
+    public SqlStatements count(Action action) {
+        reset();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return statements();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<String> statements = recording;
+        if (statements != null) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                statements.add(queryInfo.getQuery());
+            }
+        }
+    }
+}
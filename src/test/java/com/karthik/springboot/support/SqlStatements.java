@@ -0,0 +1,91 @@
+package com.karthik.springboot.support;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// statements executed by one counted action, with budget assertions that list the SQL when they fail:
+//
+//   sqlStatementCounter.count(() -> employeeService.saveEmployee(employee))
+//           .assertInserts(1)
+//           .assertSelectsAtMost(0)
+//           .assertWithin(Duration.ofMillis(500));
+public class SqlStatements {
+
+    private final List<String> statements;
+
+    private final long elapsedNanos;
+
+    SqlStatements(List<String> statements, long elapsedNanos) {
+        this.statements = statements;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public SqlStatements assertSelects(int expected) {
+        return assertCount("select", expected, expected);
+    }
+
+    public SqlStatements assertSelectsAtMost(int max) {
+        return assertCount("select", 0, max);
+    }
+
+    public SqlStatements assertInserts(int expected) {
+        return assertCount("insert", expected, expected);
+    }
+
+    public SqlStatements assertUpdates(int expected) {
+        return assertCount("update", expected, expected);
+    }
+
+    public SqlStatements assertDeletes(int expected) {
+        return assertCount("delete", expected, expected);
+    }
+
+    public SqlStatements assertTotalAtMost(int max) {
+        if (statements.size() > max) {
+            throw new AssertionError("Expected at most " + max + " statements but " + statements.size() + " ran" + listing());
+        }
+        return this;
+    }
+
+    // wall-clock budget of the whole action, including the statements
+    public SqlStatements assertWithin(Duration budget) {
+        Duration elapsed = Duration.ofNanos(elapsedNanos);
+        if (elapsed.compareTo(budget) > 0) {
+            throw new AssertionError("Expected to finish within " + budget.toMillis() + " ms but took "
+                    + elapsed.toMillis() + " ms" + listing());
+        }
+        return this;
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+
+    public long count(String type) {
+        return statements.stream().filter(sql -> typeOf(sql).equals(type)).count();
+    }
+
+    private SqlStatements assertCount(String type, int min, int max) {
+        long actual = count(type);
+        if (actual < min || actual > max) {
+            String expected = min == max ? String.valueOf(max) : "at most " + max;
+            throw new AssertionError("Expected " + expected + " " + type.toUpperCase(Locale.ROOT) + " but " + actual + " ran" + listing());
+        }
+        return this;
+    }
+
+    private String listing() {
+        return statements.stream().map(sql -> "\n  " + sql).collect(Collectors.joining("", ":", ""));
+    }
+
+    private static String typeOf(String sql) {
+        String trimmed = sql.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+}